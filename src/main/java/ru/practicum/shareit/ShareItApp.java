@@ -2,8 +2,13 @@ package ru.practicum.shareit;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.practicum.shareit.booking.archive.BookingArchiveProperties;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(BookingArchiveProperties.class)
 public class ShareItApp {
 
 	public static void main(String[] args) {
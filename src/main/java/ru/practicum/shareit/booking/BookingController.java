@@ -2,11 +2,22 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.OwnerBookingSummaryDto;
+import ru.practicum.shareit.booking.events.BookingEventBroadcaster;
+import ru.practicum.shareit.utils.BatchRowResult;
 import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.JsonStreamWriter;
 
 import java.util.List;
 
@@ -15,7 +26,12 @@ import java.util.List;
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final BookingService bookingService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final BookingEventBroadcaster bookingEventBroadcaster;
 
     @PostMapping
     public BookingDtoResponse saveNewBooking(@Validated(Create.class) @RequestBody BookingDtoRequest bookingDtoRequest,
@@ -24,6 +40,17 @@ public class BookingController {
         return bookingService.saveNewBooking(bookingDtoRequest, userId);
     }
 
+    /**
+     * Создаёт до 1000 бронирований за запрос, результат возвращается по каждой строке.
+     */
+    @PostMapping("/batch")
+    public List<BatchRowResult<BookingDtoResponse>> saveNewBookings(
+            @RequestBody List<BookingDtoRequest> bookingDtoRequests,
+            @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("POST / bookings / batch {}", bookingDtoRequests.size());
+        return bookingService.saveNewBookings(bookingDtoRequests, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDtoResponse approve(@PathVariable long bookingId, @RequestParam(name = "approved") Boolean isApproved,
                                       @RequestHeader("X-Sharer-User-Id") long userId) {
@@ -31,23 +58,98 @@ public class BookingController {
         return bookingService.approve(bookingId, isApproved, userId);
     }
 
+    /**
+     * Поток событий о создании и смене статуса бронирований пользователя — как автора, так и владельца вещи.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("GET / bookings / events");
+        return bookingEventBroadcaster.subscribe(userId);
+    }
+
     @GetMapping("/{bookingId}")
-    public BookingDtoResponse getBookingById(@PathVariable long bookingId, @RequestHeader("X-Sharer-User-Id") long userId) {
+    public BookingDtoResponse getBookingById(@PathVariable long bookingId,
+                                             @RequestHeader("X-Sharer-User-Id") long userId,
+                                             WebRequest request) {
         log.info("GET / bookings / {}", bookingId);
+        if (request.checkNotModified(bookingService.getBookingTag(bookingId, userId))) {
+            return null;
+        }
         return bookingService.getBookingById(bookingId, userId);
     }
 
+    /**
+     * Без параметров cursor и size отдаёт все бронирования, как до появления постраничной разбивки.
+     */
     @GetMapping
-    public List<BookingDtoResponse> getAllByBooker(@RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                   @RequestHeader("X-Sharer-User-Id") long bookerId) {
+    public ResponseEntity<List<BookingDtoResponse>> getAllByBooker(
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestHeader("X-Sharer-User-Id") long bookerId) {
         log.info("GET / ByBooker {}", bookerId);
-        return bookingService.getAllByBooker(state, bookerId);
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(bookingService.getAllByBooker(state, bookerId));
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        return toPage(bookingService.getAllByBooker(state, bookerId, Cursor.decode(cursor), pageSize), pageSize);
+    }
+
+    /**
+     * Все бронирования пользователя без постраничной разбивки, отдаются по мере чтения из базы.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllByBooker(
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestHeader("X-Sharer-User-Id") long bookerId,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.info("GET / ByBooker / stream {}", bookerId);
+        return jsonStreamWriter.write(accept, bookingService.streamAllByBooker(state, bookerId));
     }
 
+    /**
+     * Без параметров cursor и size отдаёт все бронирования, как до появления постраничной разбивки.
+     */
     @GetMapping("/owner")
-    public List<BookingDtoResponse> getAllByOwner(@RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                  @RequestHeader("X-Sharer-User-Id") long ownerId) {
+    public ResponseEntity<List<BookingDtoResponse>> getAllByOwner(
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestHeader("X-Sharer-User-Id") long ownerId) {
         log.info("GET / ByOwner / {}", ownerId);
-        return bookingService.getAllByOwner(ownerId, state);
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(bookingService.getAllByOwner(ownerId, state));
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        return toPage(bookingService.getAllByOwner(ownerId, state, Cursor.decode(cursor), pageSize), pageSize);
+    }
+
+    /**
+     * Число бронирований владельца в каждом состоянии и загрузка каждой вещи. Собирается из счётчиков в строках
+     * вещей, сами бронирования не читаются.
+     */
+    @GetMapping("/owner/summary")
+    public OwnerBookingSummaryDto getOwnerSummary(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.info("GET / ByOwner / summary {}", ownerId);
+        return bookingService.getOwnerSummary(ownerId);
+    }
+
+    @GetMapping(path = "/owner", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllByOwner(
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestHeader("X-Sharer-User-Id") long ownerId,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.info("GET / ByOwner / stream {}", ownerId);
+        return jsonStreamWriter.write(accept, bookingService.streamAllByOwner(ownerId, state));
+    }
+
+    private ResponseEntity<List<BookingDtoResponse>> toPage(List<BookingDtoResponse> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingDtoResponse last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, new Cursor(last.getStart(), last.getId()).encode())
+                .body(bookings);
     }
 }
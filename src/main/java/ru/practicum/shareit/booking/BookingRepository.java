@@ -1,72 +1,181 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingParticipantsView;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.interval.BookingInterval;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.utils.IndexedBy;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerId(long bookerId, Sort start);
-
+    @IndexedBy("bookings(id)")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findWithItemAndBookerById(long bookingId);
+
+    @IndexedBy("bookings(id)")
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingVersionView(u.id, i.owner.id, " +
+            "b.version, i.version, u.version) " +
+            "FROM Booking b JOIN b.item i JOIN b.booker u " +
+            "WHERE b.id = ?1")
+    Optional<BookingVersionView> findVersionById(long bookingId);
+
+    /**
+     * Меняет статус, только если бронирование всё ещё в статусе expected. Проигравший параллельный запрос
+     * получает 0 обновлённых строк вместо блокировки.
+     */
+    @IndexedBy("bookings(id)")
+    @Modifying
+    @Query("UPDATE Booking b SET b.version = b.version + 1, b.status = ?3 WHERE b.id = ?1 AND b.status = ?2")
+    int updateStatus(long bookingId, BookingStatus expected, BookingStatus status);
+
+    @IndexedBy("bookings(booker_id, start_date)")
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = ?1 " +
-            "AND current_timestamp BETWEEN b.start AND b.end")
-    List<Booking> findAllByBookerIdAndStateCurrent(long bookerId, Sort start);
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerId(long bookerId, LocalDateTime start, long id, Limit limit);
 
+    @IndexedBy("bookings(booker_id, start_date)")
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = ?1 " +
-            "AND current_timestamp > b.end")
-    List<Booking> findAllByBookerIdAndStatePast(long brokerId, Sort start);
+            "AND current_timestamp BETWEEN b.start AND b.end " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerIdAndStateCurrent(long bookerId, LocalDateTime start, long id, Limit limit);
 
+    @IndexedBy("bookings(booker_id, start_date)")
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = ?1 " +
-            "AND current_timestamp < b.start")
-    List<Booking> findAllByBookerIdAndStateFuture(long bookerId, Sort start);
-
-    List<Booking> findAllByBookerIdAndStatus(long bookerId, BookingStatus bookingStatus, Sort start);
+            "AND current_timestamp > b.end " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerIdAndStatePast(long bookerId, LocalDateTime start, long id, Limit limit);
 
+    @IndexedBy("bookings(booker_id, start_date)")
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.owner.id = ?1")
-    List<Booking> findAllByOwnerId(long ownerId, Sort start);
+            "WHERE b.booker.id = ?1 " +
+            "AND current_timestamp < b.start " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerIdAndStateFuture(long bookerId, LocalDateTime start, long id, Limit limit);
 
+    @IndexedBy("bookings(booker_id, status, start_date)")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = ?1 " +
+            "AND b.status = ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBookerIdAndStatus(long bookerId, BookingStatus bookingStatus,
+                                             LocalDateTime start, long id, Limit limit);
+
+    @IndexedBy({"items(owner_id)", "bookings(item_id, start_date)"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = ?1 " +
-            "AND current_timestamp BETWEEN b.start AND b.end")
-    List<Booking> findAllByOwnerIdAndStateCurrent(long ownerId, Sort start);
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByOwnerId(long ownerId, LocalDateTime start, long id, Limit limit);
 
+    @IndexedBy({"items(owner_id)", "bookings(item_id, start_date)"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = ?1 " +
-            "AND current_timestamp > b.end")
-    List<Booking> findAllByOwnerIdAndStatePast(long ownerId, Sort start);
+            "AND current_timestamp BETWEEN b.start AND b.end " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByOwnerIdAndStateCurrent(long ownerId, LocalDateTime start, long id, Limit limit);
 
+    @IndexedBy({"items(owner_id)", "bookings(item_id, start_date)"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = ?1 " +
-            "AND current_timestamp < b.start")
-    List<Booking> findAllByOwnerIdAndStateFuture(long ownerId, Sort start);
+            "AND current_timestamp > b.end " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByOwnerIdAndStatePast(long ownerId, LocalDateTime start, long id, Limit limit);
 
+    @IndexedBy({"items(owner_id)", "bookings(item_id, start_date)"})
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = ?1 " +
-            "AND b.status = ?2")
-    List<Booking> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus, Sort start);
+            "AND current_timestamp < b.start " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByOwnerIdAndStateFuture(long ownerId, LocalDateTime start, long id, Limit limit);
 
-    Optional<Booking> findFirstByItemIdAndStartLessThanEqualAndStatus(long itemId, LocalDateTime localDateTime,
-                                                                      BookingStatus bookingStatus, Sort end);
-
-    Optional<Booking> findFirstByItemIdAndStartAfterAndStatus(long itemId, LocalDateTime localDateTime,
-                                                              BookingStatus bookingStatus, Sort end);
+    @IndexedBy({"items(owner_id)", "bookings(item_id, status, start_date)"})
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = ?1 " +
+            "AND b.status = ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus,
+                                            LocalDateTime start, long id, Limit limit);
+
+    @IndexedBy("bookings(item_id, status, end_date)")
+    @Query("SELECT new ru.practicum.shareit.booking.interval.BookingInterval(b.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id = ?1 " +
+            "AND b.status = ?2 " +
+            "AND b.end > ?3")
+    List<BookingInterval> findIntervalsByItemId(long itemId, BookingStatus bookingStatus, LocalDateTime after);
+
+    /**
+     * Последнее подтверждённое бронирование каждой вещи: одна строка на вещь, лишние отбрасываются в базе.
+     * Из бронирований с одинаковым окончанием выбирается большее id, как и в остальных запросах сводки.
+     */
+    @IndexedBy("bookings(item_id, status, start_date)")
+    @Query(nativeQuery = true, value = "SELECT * FROM (SELECT b.*, ROW_NUMBER() OVER " +
+            "(PARTITION BY b.item_id ORDER BY b.end_date DESC, b.id DESC) AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.start_date <= :thisMoment) t " +
+            "WHERE t.rn = 1")
+    List<Booking> findLastApprovedByItemIdIn(Collection<Long> itemIds, LocalDateTime thisMoment);
+
+    /**
+     * Следующее подтверждённое бронирование каждой вещи: одна строка на вещь, лишние отбрасываются в базе.
+     * Из бронирований с одинаковым окончанием выбирается меньшее id.
+     */
+    @IndexedBy("bookings(item_id, status, start_date)")
+    @Query(nativeQuery = true, value = "SELECT * FROM (SELECT b.*, ROW_NUMBER() OVER " +
+            "(PARTITION BY b.item_id ORDER BY b.end_date, b.id) AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.start_date > :thisMoment) t " +
+            "WHERE t.rn = 1")
+    List<Booking> findNextApprovedByItemIdIn(Collection<Long> itemIds, LocalDateTime thisMoment);
+
+    @IndexedBy("bookings(booker_id, item_id, end_date)")
+    Boolean existsByBookerIdAndItemIdAndEndBefore(long bookerId, long itemId, LocalDateTime localDateTime);
 
-    List<Booking> findByItemInAndStartLessThanEqualAndStatus(List<Item> items, LocalDateTime thisMoment,
-                                                             BookingStatus approved, Sort end);
+    @IndexedBy("bookings(end_date)")
+    @Query("SELECT b.id FROM Booking b WHERE b.end < ?1 AND b.status <> ?2 ORDER BY b.end")
+    List<Long> findIdsEndedBefore(LocalDateTime cutoff, BookingStatus excluded, Limit limit);
 
-    List<Booking> findByItemInAndStartAfterAndStatus(List<Item> items, LocalDateTime thisMoment,
-                                                     BookingStatus approved, Sort end);
+    @IndexedBy({"bookings(id)", "items(id)"})
+    @Query("SELECT DISTINCT new ru.practicum.shareit.booking.dto.BookingParticipantsView(i.id, b.booker.id, " +
+            "i.owner.id) " +
+            "FROM Booking b JOIN b.item i WHERE b.id IN ?1")
+    List<BookingParticipantsView> findParticipantsByIdIn(Collection<Long> bookingIds);
 
-    Boolean existsByBookerIdAndItemIdAndEndBefore(long bookerId, long itemId, LocalDateTime localDateTime);
+    @IndexedBy("bookings(id)")
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN ?1")
+    int deleteAllByIdIn(Collection<Long> bookingIds);
 
 }
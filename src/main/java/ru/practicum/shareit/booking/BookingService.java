@@ -2,18 +2,36 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.OwnerBookingSummaryDto;
+import ru.practicum.shareit.utils.BatchRowResult;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.ResultStream;
 
 import java.util.List;
 
 public interface BookingService {
     BookingDtoResponse saveNewBooking(BookingDtoRequest bookingDtoRequest, long userId);
 
+    List<BatchRowResult<BookingDtoResponse>> saveNewBookings(List<BookingDtoRequest> bookingDtoRequests, long userId);
+
     BookingDtoResponse approve(long bookingId, Boolean isApproved, long userId);
 
     BookingDtoResponse getBookingById(long bookingId, long userId);
 
+    String getBookingTag(long bookingId, long userId);
+
     List<BookingDtoResponse> getAllByBooker(String subState, long bookerId);
 
+    List<BookingDtoResponse> getAllByBooker(String subState, long bookerId, Cursor cursor, int size);
+
     List<BookingDtoResponse> getAllByOwner(long ownerId, String state);
+
+    List<BookingDtoResponse> getAllByOwner(long ownerId, String state, Cursor cursor, int size);
+
+    OwnerBookingSummaryDto getOwnerSummary(long ownerId);
+
+    ResultStream<BookingDtoResponse> streamAllByBooker(String state, long bookerId);
+
+    ResultStream<BookingDtoResponse> streamAllByOwner(long ownerId, String state);
 }
 
@@ -1,59 +1,182 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.archive.BookingArchiveProperties;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingSummaryDto;
+import ru.practicum.shareit.booking.events.BookingChangedEvent;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.user.dto.UserDtoShort;
+import ru.practicum.shareit.user.dto.UserView;
+import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.utils.BatchRowResult;
+import ru.practicum.shareit.utils.BatchValidator;
+import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.EntityTag;
+import ru.practicum.shareit.utils.ResultStream;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import static org.springframework.data.domain.Sort.Direction.DESC;
-
 @Slf4j
 @Transactional
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int APPROVE_ATTEMPTS = 3;
+
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingArchiveProperties archiveProperties;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final PlatformTransactionManager transactionManager;
+    private final BatchValidator batchValidator;
+    private final MeterRegistry meterRegistry;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public BookingDtoResponse saveNewBooking(BookingDtoRequest bookingDtoRequest, long userId) {
-        User booker = getUser(userId);
-        Item item = getItem(bookingDtoRequest.getItemId());
-        if (!item.getAvailable()) {
-            throw new ValidationException("Вещь недоступна для брони");
-        }
-        if (booker.getId() == item.getOwner().getId()) {
-            throw new NotFoundException("Функция бронировать собственную вещь отсутствует");
-        }
-        if (!bookingDtoRequest.getEnd().isAfter(bookingDtoRequest.getStart()) ||
-                bookingDtoRequest.getStart().isBefore(LocalDateTime.now())) {
-            throw new ValidationException("Дата начала бронирования должна быть раньше даты возврата");
-        }
+        UserView booker = getUser(userId);
+        ItemView item = getItem(bookingDtoRequest.getItemId());
+        checkNewBooking(bookingDtoRequest, item, booker.id());
 
-        Booking booking = bookingRepository.save(BookingMapper.toBooking(bookingDtoRequest, item, booker));
+        Booking booking = bookingRepository.save(BookingMapper.toBooking(bookingDtoRequest,
+                itemRepository.getReferenceById(item.id()), userRepository.getReferenceById(booker.id())));
+        itemRepository.countNewBookings(item.id(), 1, booking.getStart());
         log.info("Бронирование с идентификатором {} создано", booking.getId());
-        return BookingMapper.toBookingDtoResponse(booking);
+        return publishChanged(new BookingChangedEvent(item.ownerId(), BookingMapper.toBookingDtoResponse(booking,
+                ItemMapper.toItemDtoShort(item), UserMapper.toUserDtoShort(booker))));
     }
 
+    /**
+     * Создаёт бронирования одной транзакцией. Вещи всех строк загружаются одним запросом, каждая строка
+     * проверяется так же, как одиночное бронирование, отклонённые строки пропускаются, остальные вставляются
+     * пакетами JDBC.
+     */
+    @Override
+    public List<BatchRowResult<BookingDtoResponse>> saveNewBookings(List<BookingDtoRequest> bookingDtoRequests,
+                                                                    long userId) {
+        batchValidator.checkSize(bookingDtoRequests);
+        log.info("Пакетное создание {} бронирований", bookingDtoRequests.size());
+        UserView booker = getUser(userId);
+        User bookerReference = userRepository.getReferenceById(booker.id());
+        Set<Long> itemIds = bookingDtoRequests.stream().filter(Objects::nonNull).map(BookingDtoRequest::getItemId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<BatchRowResult<BookingDtoResponse>> results =
+                new ArrayList<>(Collections.nCopies(bookingDtoRequests.size(), null));
+        List<Integer> indexes = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < bookingDtoRequests.size(); i++) {
+            BookingDtoRequest bookingDtoRequest = bookingDtoRequests.get(i);
+            Optional<String> error = batchValidator.validate(bookingDtoRequest, Create.class);
+            if (error.isPresent()) {
+                results.set(i, BatchRowResult.failed(i, error.get()));
+                continue;
+            }
+            Item item = items.get(bookingDtoRequest.getItemId());
+            if (item == null) {
+                results.set(i, BatchRowResult.failed(i, String.format("Объект класса %s не найден", Item.class)));
+                continue;
+            }
+            try {
+                checkNewBooking(bookingDtoRequest, ItemMapper.toItemView(item), booker.id());
+            } catch (NotFoundException | ValidationException | ConflictException e) {
+                results.set(i, BatchRowResult.failed(i, e.getMessage()));
+                continue;
+            }
+            indexes.add(i);
+            bookings.add(BookingMapper.toBooking(bookingDtoRequest, item, bookerReference));
+        }
+        bookingRepository.saveAll(bookings);
+        // Счётчики обновляются по одному запросу на вещь, строки вещей блокируются по возрастанию id
+        bookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(), TreeMap::new, Collectors.toList()))
+                .forEach((itemId, itemBookings) -> itemRepository.countNewBookings(itemId, itemBookings.size(),
+                        itemBookings.stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow()));
+        UserDtoShort bookerDto = UserMapper.toUserDtoShort(booker);
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            BookingChangedEvent event = new BookingChangedEvent(booking.getItem().getOwner().getId(),
+                    BookingMapper.toBookingDtoResponse(booking, ItemMapper.toItemDtoShort(booking.getItem()),
+                            bookerDto));
+            results.set(indexes.get(i), BatchRowResult.created(indexes.get(i), publishChanged(event)));
+        }
+        return results;
+    }
+
+    /**
+     * Подтверждает или отклоняет бронирование без блокировок: статус меняется условным UPDATE, и из двух
+     * параллельных запросов успешен только один. Попытка, упавшая на конфликте транзакций в базе,
+     * повторяется в новой транзакции до {@value #APPROVE_ATTEMPTS} раз.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Override
     public BookingDtoResponse approve(long bookingId, Boolean isApproved, long userId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> approveOnce(bookingId, isApproved, userId));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == APPROVE_ATTEMPTS) {
+                    countApproveConflict("retries_exhausted");
+                    throw e;
+                }
+                meterRegistry.counter("shareit.booking.approve.retries").increment();
+                log.info("Повтор подтверждения бронирования {} после конфликта: {}", bookingId, e.getMessage());
+            }
+        }
+    }
+
+    private BookingDtoResponse approveOnce(long bookingId, boolean isApproved, long userId) {
         Booking booking = getById(bookingId);
         if (booking.getItem().getOwner().getId() != userId) {
             throw new ForbiddenException("Подтвердить бронирование может только собственник вещи");
@@ -62,94 +185,346 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getStatus() != BookingStatus.WAITING) {
             throw new NotFoundException("Вещь уже забронирована");
         }
+        // Статус меняется раньше проверки пересечений: параллельное подтверждение того же бронирования ждёт
+        // блокировку строки и получает отказ как уже обработанное, а не как пересечение с самим собой.
+        // При пересечении транзакция откатывается вместе со сменой статуса.
         BookingStatus newBookingStatus = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, newBookingStatus) == 0) {
+            countApproveConflict("status_changed");
+            throw new ConflictException("Бронирование уже обработано параллельным запросом");
+        }
+        if (isApproved) {
+            try {
+                bookingIntervalIndex.reserve(booking.getItem().getId(),
+                        new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd()));
+            } catch (ConflictException e) {
+                countApproveConflict("overlap");
+                throw e;
+            }
+        }
+        // Статус уже записан в базу, сущность нужна только для ответа
+        entityManager.detach(booking);
         booking.setStatus(newBookingStatus);
+        long itemId = booking.getItem().getId();
+        if (isApproved) {
+            itemRepository.countApproval(itemId, Duration.between(booking.getStart(), booking.getEnd()).toSeconds(),
+                    booking.getStart(), booking.getEnd());
+            updateBookingSummary(booking);
+        } else {
+            itemRepository.countRejection(itemId);
+            // Сводка вещи не должна ссылаться на отклонённое бронирование
+            if (itemRepository.refreshBookingSummariesReferencing(List.of(itemId), List.of(bookingId),
+                    LocalDateTime.now()) > 0) {
+                userRepository.incrementItemsRevision(booking.getItem().getOwner().getId());
+            }
+        }
         log.info("Бронирование с идентификатором {} обновлено", booking.getId());
-        return BookingMapper.toBookingDtoResponse(booking);
+        return publishChanged(BookingChangedEvent.of(booking));
     }
 
     @Transactional(readOnly = true)
     @Override
     public BookingDtoResponse getBookingById(long bookingId, long userId) {
         log.info("Получение бронирования по идентификатору {}", bookingId);
-        Booking booking = getById(bookingId);
-        User booker = booking.getBooker();
-        User owner = getUser(booking.getItem().getOwner().getId());
-        if (booker.getId() != userId && owner.getId() != userId) {
-            throw new ForbiddenException("Только автор или владелец может просматривать данное бронирование");
+        Optional<Booking> booking = bookingRepository.findWithItemAndBookerById(bookingId);
+        if (booking.isEmpty()) {
+            return getArchivedBookingById(bookingId, userId);
         }
-        return BookingMapper.toBookingDtoResponse(booking);
+        checkParticipant(booking.get().getBooker().getId(), booking.get().getItem().getOwner().getId(), userId);
+        return BookingMapper.toBookingDtoResponse(booking.get());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public String getBookingTag(long bookingId, long userId) {
+        BookingVersionView version = bookingRepository.findVersionById(bookingId)
+                .or(() -> archivedBookingRepository.findVersionById(bookingId))
+                .orElseThrow(() ->
+                        new EntityNotFoundException(String.format("Объект класса %s не найден", Booking.class)));
+        checkParticipant(version.bookerId(), version.ownerId(), userId);
+        return EntityTag.of("booking", bookingId, version.bookingVersion(), version.itemVersion(),
+                version.bookerVersion());
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<BookingDtoResponse> getAllByBooker(String state, long bookerId) {
-        User booker = getUser(bookerId);
-        List<Booking> bookings;
-        BookingState bookingState;
-        try {
-            bookingState = BookingState.valueOf(state);
-        } catch (IllegalArgumentException e) {
-            throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
-        }
-        bookings = switch (bookingState) {
-            case ALL -> bookingRepository.findAllByBookerId(booker.getId(), Sort.by(DESC, "start"));
-            case CURRENT -> bookingRepository.findAllByBookerIdAndStateCurrent(booker.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case PAST -> bookingRepository.findAllByBookerIdAndStatePast(booker.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case FUTURE -> bookingRepository.findAllByBookerIdAndStateFuture(booker.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case WAITING -> bookingRepository.findAllByBookerIdAndStatus(booker.getId(),
-                    BookingStatus.WAITING, Sort.by(Sort.Direction.DESC, "start"));
-            case REJECTED -> bookingRepository.findAllByBookerIdAndStatus(booker.getId(),
-                    BookingStatus.REJECTED, Sort.by(DESC, "end"));
-        };
-        return bookings.stream().map(BookingMapper::toBookingDtoResponse).collect(Collectors.toList());
+        boolean archived = isBookingsArchived(bookerId);
+        BookingState bookingState = parseState(state);
+        return readAllPages((cursor, limit) -> findByBooker(bookingState, bookerId, archived, cursor, limit));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDtoResponse> getAllByBooker(String state, long bookerId, Cursor cursor, int size) {
+        boolean archived = isBookingsArchived(bookerId);
+        BookingState bookingState = parseState(state);
+        return findByBooker(bookingState, bookerId, archived, cursor, toLimit(size));
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<BookingDtoResponse> getAllByOwner(long ownerId, String state) {
-        User owner = getUser(ownerId);
-        List<Booking> bookings;
-        BookingState bookingState;
-        try {
-            bookingState = BookingState.valueOf(state);
-        } catch (IllegalArgumentException e) {
-            throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        boolean archived = isBookingsArchived(ownerId);
+        BookingState bookingState = parseState(state);
+        return readAllPages((cursor, limit) -> findByOwner(bookingState, ownerId, archived, cursor, limit));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDtoResponse> getAllByOwner(long ownerId, String state, Cursor cursor, int size) {
+        boolean archived = isBookingsArchived(ownerId);
+        BookingState bookingState = parseState(state);
+        return findByOwner(bookingState, ownerId, archived, cursor, toLimit(size));
+    }
+
+    /**
+     * Будущие и текущие бронирования отстают от времени не больше чем на интервал пересчёта счётчиков.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public OwnerBookingSummaryDto getOwnerSummary(long ownerId) {
+        getUser(ownerId);
+        List<ItemBookingSummaryDto> items = itemRepository.findBookingCountsByOwnerId(ownerId).stream()
+                .map(BookingMapper::toItemBookingSummaryDto)
+                .toList();
+        BookingCountsDto total = new BookingCountsDto(0, 0, 0, 0, 0, 0);
+        for (ItemBookingSummaryDto item : items) {
+            BookingCountsDto counts = item.getBookings();
+            total.setAll(total.getAll() + counts.getAll());
+            total.setCurrent(total.getCurrent() + counts.getCurrent());
+            total.setPast(total.getPast() + counts.getPast());
+            total.setFuture(total.getFuture() + counts.getFuture());
+            total.setWaiting(total.getWaiting() + counts.getWaiting());
+            total.setRejected(total.getRejected() + counts.getRejected());
         }
-        bookings = switch (bookingState) {
-            case ALL -> bookingRepository.findAllByOwnerId(owner.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case CURRENT -> bookingRepository.findAllByOwnerIdAndStateCurrent(owner.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case PAST -> bookingRepository.findAllByOwnerIdAndStatePast(owner.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case FUTURE -> bookingRepository.findAllByOwnerIdAndStateFuture(owner.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case WAITING -> bookingRepository.findAllByOwnerIdAndStatus(owner.getId(),
-                    BookingStatus.WAITING, Sort.by(Sort.Direction.DESC, "start"));
-            case REJECTED -> bookingRepository.findAllByOwnerIdAndStatus(owner.getId(),
-                    BookingStatus.REJECTED, Sort.by(Sort.Direction.DESC, "start"));
-        };
-        return bookings.stream().map(BookingMapper::toBookingDtoResponse).collect(Collectors.toList());
+        return new OwnerBookingSummaryDto(total, items);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ResultStream<BookingDtoResponse> streamAllByBooker(String state, long bookerId) {
+        boolean archived = isBookingsArchived(bookerId);
+        BookingState bookingState = parseState(state);
+        return streamPages((cursor, limit) -> findByBooker(bookingState, bookerId, archived, cursor, limit));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ResultStream<BookingDtoResponse> streamAllByOwner(long ownerId, String state) {
+        boolean archived = isBookingsArchived(ownerId);
+        BookingState bookingState = parseState(state);
+        return streamPages((cursor, limit) -> findByOwner(bookingState, ownerId, archived, cursor, limit));
     }
 
     @Transactional(readOnly = true)
     public Booking getById(long bookingId) {
         log.info("Получение бронирования по идентификатору {}", bookingId);
-        return bookingRepository.findById(bookingId).orElseThrow(() ->
+        return bookingRepository.findWithItemAndBookerById(bookingId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", Booking.class)));
     }
 
-    private User getUser(long userId) {
-        return userRepository.findById(userId).orElseThrow(() ->
+    private List<BookingDtoResponse> findByBooker(BookingState state, long bookerId, boolean archived, Cursor cursor,
+                                                  Limit limit) {
+        LocalDateTime start = cursor.position();
+        long id = cursor.id();
+        List<Booking> bookings = switch (state) {
+            case ALL -> bookingRepository.findAllByBookerId(bookerId, start, id, limit);
+            case CURRENT -> bookingRepository.findAllByBookerIdAndStateCurrent(bookerId, start, id, limit);
+            case PAST -> bookingRepository.findAllByBookerIdAndStatePast(bookerId, start, id, limit);
+            case FUTURE -> bookingRepository.findAllByBookerIdAndStateFuture(bookerId, start, id, limit);
+            case WAITING -> bookingRepository.findAllByBookerIdAndStatus(bookerId,
+                    BookingStatus.WAITING, start, id, limit);
+            case REJECTED -> bookingRepository.findAllByBookerIdAndStatus(bookerId,
+                    BookingStatus.REJECTED, start, id, limit);
+        };
+        List<BookingDtoResponse> page = bookings.stream().map(BookingMapper::toBookingDtoResponse)
+                .collect(Collectors.toList());
+        if (!archived) {
+            return page;
+        }
+        return switch (state) {
+            case CURRENT, FUTURE -> page;
+            case ALL, PAST -> withArchived(page, limit, () ->
+                    archivedBookingRepository.findAllByBookerId(bookerId, start, id, limit));
+            case WAITING -> withArchived(page, limit, () ->
+                    archivedBookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.WAITING,
+                            start, id, limit));
+            case REJECTED -> withArchived(page, limit, () ->
+                    archivedBookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.REJECTED,
+                            start, id, limit));
+        };
+    }
+
+    private List<BookingDtoResponse> findByOwner(BookingState state, long ownerId, boolean archived, Cursor cursor,
+                                                 Limit limit) {
+        LocalDateTime start = cursor.position();
+        long id = cursor.id();
+        List<Booking> bookings = switch (state) {
+            case ALL -> bookingRepository.findAllByOwnerId(ownerId, start, id, limit);
+            case CURRENT -> bookingRepository.findAllByOwnerIdAndStateCurrent(ownerId, start, id, limit);
+            case PAST -> bookingRepository.findAllByOwnerIdAndStatePast(ownerId, start, id, limit);
+            case FUTURE -> bookingRepository.findAllByOwnerIdAndStateFuture(ownerId, start, id, limit);
+            case WAITING -> bookingRepository.findAllByOwnerIdAndStatus(ownerId,
+                    BookingStatus.WAITING, start, id, limit);
+            case REJECTED -> bookingRepository.findAllByOwnerIdAndStatus(ownerId,
+                    BookingStatus.REJECTED, start, id, limit);
+        };
+        List<BookingDtoResponse> page = bookings.stream().map(BookingMapper::toBookingDtoResponse)
+                .collect(Collectors.toList());
+        if (!archived) {
+            return page;
+        }
+        return switch (state) {
+            case CURRENT, FUTURE -> page;
+            case ALL, PAST -> withArchived(page, limit, () ->
+                    archivedBookingRepository.findAllByOwnerId(ownerId, start, id, limit));
+            case WAITING -> withArchived(page, limit, () ->
+                    archivedBookingRepository.findAllByOwnerIdAndStatus(ownerId, BookingStatus.WAITING,
+                            start, id, limit));
+            case REJECTED -> withArchived(page, limit, () ->
+                    archivedBookingRepository.findAllByOwnerIdAndStatus(ownerId, BookingStatus.REJECTED,
+                            start, id, limit));
+        };
+    }
+
+    /**
+     * Дополняет страницу из рабочей таблицы бронированиями из архива с тем же курсором. Архивные бронирования
+     * закончились, а значит и начались, раньше now - retention, поэтому если полная страница до этого момента
+     * не дошла, архив не читается.
+     */
+    private List<BookingDtoResponse> withArchived(List<BookingDtoResponse> page, Limit limit,
+                                                  Supplier<List<ArchivedBooking>> archived) {
+        int size = limit.max();
+        LocalDateTime horizon = LocalDateTime.now().minus(archiveProperties.getRetention());
+        if (page.size() == size && !page.get(size - 1).getStart().isBefore(horizon)) {
+            return page;
+        }
+        List<BookingDtoResponse> merged = new ArrayList<>(page);
+        archived.get().forEach(booking -> merged.add(BookingMapper.toBookingDtoResponse(booking)));
+        merged.sort(Comparator.comparing(BookingDtoResponse::getStart)
+                .thenComparingLong(BookingDtoResponse::getId).reversed());
+        return merged.size() > size ? new ArrayList<>(merged.subList(0, size)) : merged;
+    }
+
+    /**
+     * Собирает всю выборку страницами по курсору в текущей транзакции.
+     */
+    private List<BookingDtoResponse> readAllPages(BiFunction<Cursor, Limit, List<BookingDtoResponse>> pages) {
+        Limit limit = Limit.of(MAX_PAGE_SIZE);
+        List<BookingDtoResponse> bookings = new ArrayList<>();
+        List<BookingDtoResponse> page;
+        Cursor cursor = Cursor.FIRST;
+        do {
+            page = pages.apply(cursor, limit);
+            bookings.addAll(page);
+            if (!page.isEmpty()) {
+                BookingDtoResponse last = page.get(page.size() - 1);
+                cursor = new Cursor(last.getStart(), last.getId());
+            }
+        } while (page.size() == MAX_PAGE_SIZE);
+        return bookings;
+    }
+
+    private ResultStream<BookingDtoResponse> streamPages(BiFunction<Cursor, Limit, List<BookingDtoResponse>> pages) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Limit limit = Limit.of(MAX_PAGE_SIZE);
+        return ResultStream.ofPages(transaction, MAX_PAGE_SIZE, last ->
+                pages.apply(last == null ? Cursor.FIRST : new Cursor(last.getStart(), last.getId()), limit));
+    }
+
+    /**
+     * Подписчики получат событие после фиксации транзакции; ответ клиенту собирается из того же события.
+     */
+    private BookingDtoResponse publishChanged(BookingChangedEvent event) {
+        eventPublisher.publishEvent(event);
+        return event.booking();
+    }
+
+    private void countApproveConflict(String reason) {
+        meterRegistry.counter("shareit.booking.approve.conflicts", "reason", reason).increment();
+    }
+
+    /**
+     * Новое бронирование в ожидании не попадает в сводку вещи, поэтому она обновляется только при подтверждении.
+     */
+    private void updateBookingSummary(Booking booking) {
+        long itemId = booking.getItem().getId();
+        int updated;
+        if (booking.getStart().isAfter(LocalDateTime.now())) {
+            updated = itemRepository.offerNextBooking(itemId, booking.getId(), booking.getBooker().getId(),
+                    booking.getStart(), booking.getEnd());
+        } else {
+            updated = itemRepository.offerLastBooking(itemId, booking.getId(), booking.getBooker().getId(),
+                    booking.getStart(), booking.getEnd());
+        }
+        if (updated > 0) {
+            userRepository.incrementItemsRevision(booking.getItem().getOwner().getId());
+        }
+    }
+
+    private BookingDtoResponse getArchivedBookingById(long bookingId, long userId) {
+        ArchivedBooking booking = archivedBookingRepository.findWithItemAndBookerById(bookingId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", Booking.class)));
+        checkParticipant(booking.getBooker().getId(), booking.getItem().getOwner().getId(), userId);
+        return BookingMapper.toBookingDtoResponse(booking);
+    }
+
+    private void checkParticipant(long bookerId, long ownerId, long userId) {
+        if (bookerId != userId && ownerId != userId) {
+            throw new ForbiddenException("Только автор или владелец может просматривать данное бронирование");
+        }
+    }
+
+    private void checkNewBooking(BookingDtoRequest bookingDtoRequest, ItemView item, long bookerId) {
+        if (!item.available()) {
+            throw new ValidationException("Вещь недоступна для брони");
+        }
+        if (bookerId == item.ownerId()) {
+            throw new NotFoundException("Функция бронировать собственную вещь отсутствует");
+        }
+        if (!bookingDtoRequest.getEnd().isAfter(bookingDtoRequest.getStart()) ||
+                bookingDtoRequest.getStart().isBefore(LocalDateTime.now())) {
+            throw new ValidationException("Дата начала бронирования должна быть раньше даты возврата");
+        }
+        bookingIntervalIndex.findOverlap(item.id(), bookingDtoRequest.getStart(), bookingDtoRequest.getEnd())
+                .ifPresent(overlap -> {
+                    throw new ConflictException(String.format("Вещь уже забронирована на эти даты (бронирование %d)",
+                            overlap.id()));
+                });
+    }
+
+    private BookingState parseState(String state) {
+        try {
+            return BookingState.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    private Limit toLimit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
+        return Limit.of(size);
+    }
+
+    private UserView getUser(long userId) {
+        return userRepository.findCachedById(userId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
+    }
+
+    /**
+     * Проверяет, что пользователь существует, и читает из базы, есть ли у него бронирования в архиве.
+     */
+    private boolean isBookingsArchived(long userId) {
+        return userRepository.findBookingsArchivedById(userId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
     }
 
-    private Item getItem(long itemId) {
-        return itemRepository.findById(itemId).orElseThrow(() ->
+    private ItemView getItem(long itemId) {
+        return itemRepository.findCachedById(itemId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.utils.IndexedBy;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Архив бронирований. Все архивные бронирования уже закончились, поэтому отдельных запросов
+ * для состояний PAST, CURRENT и FUTURE нет.
+ */
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    @IndexedBy("bookings_archive(id)")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<ArchivedBooking> findWithItemAndBookerById(long bookingId);
+
+    @IndexedBy("bookings_archive(id)")
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingVersionView(u.id, i.owner.id, " +
+            "b.version, i.version, u.version) " +
+            "FROM ArchivedBooking b JOIN b.item i JOIN b.booker u " +
+            "WHERE b.id = ?1")
+    Optional<BookingVersionView> findVersionById(long bookingId);
+
+    @IndexedBy("bookings_archive(booker_id, start_date)")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "WHERE b.booker.id = ?1 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findAllByBookerId(long bookerId, LocalDateTime start, long id, Limit limit);
+
+    @IndexedBy("bookings_archive(booker_id, status, start_date)")
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "WHERE b.booker.id = ?1 " +
+            "AND b.status = ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findAllByBookerIdAndStatus(long bookerId, BookingStatus bookingStatus,
+                                                     LocalDateTime start, long id, Limit limit);
+
+    @IndexedBy({"items(owner_id)", "bookings_archive(item_id, start_date)"})
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "WHERE b.item.owner.id = ?1 " +
+            "AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findAllByOwnerId(long ownerId, LocalDateTime start, long id, Limit limit);
+
+    @IndexedBy({"items(owner_id)", "bookings_archive(item_id, status, start_date)"})
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "WHERE b.item.owner.id = ?1 " +
+            "AND b.status = ?2 " +
+            "AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus,
+                                                    LocalDateTime start, long id, Limit limit);
+
+    @IndexedBy("bookings_archive(booker_id, item_id, end_date)")
+    Boolean existsByBookerIdAndItemIdAndEndBefore(long bookerId, long itemId, LocalDateTime localDateTime);
+
+    /**
+     * Копирует строки из рабочей таблицы как есть, вместе с идентификаторами и версиями.
+     */
+    @IndexedBy("bookings(id)")
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO bookings_archive " +
+            "(id, start_date, end_date, item_id, booker_id, status, version) " +
+            "SELECT id, start_date, end_date, item_id, booker_id, status, version FROM bookings " +
+            "WHERE id IN (:bookingIds)")
+    int copyFromBookings(Collection<Long> bookingIds);
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Перенос закончившихся бронирований в архив. Бронирование переносится, когда с его окончания прошло
+ * больше retention. Уменьшать retention можно, увеличивать — только вместе с возвратом строк из архива.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking-archive")
+public class BookingArchiveProperties {
+    private boolean enabled = false;
+    private Duration interval = Duration.ofHours(1);
+    private Duration retention = Duration.ofDays(180);
+    private int batchSize = 1000;
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingParticipantsView;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.JobLock;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Переносит давно закончившиеся бронирования из рабочей таблицы в архив. Каждая пачка переносится
+ * отдельной транзакцией, чтобы не держать долгих блокировок. Рабочая таблица при этом содержит только
+ * бронирования последних retention, и запросы текущих и будущих бронирований не зависят от объёма истории.
+ * Бронирования, ждущие подтверждения, остаются в рабочей таблице, пока владелец их не рассмотрит.
+ * Проход выполняет один экземпляр приложения под {@link JobLock}, иначе экземпляры переносили бы одни
+ * и те же строки и сталкивались на первичном ключе архива.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking-archive.enabled", havingValue = "true")
+public class BookingArchiver {
+    private static final String LOCK = "booking-archive";
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final BookingArchiveProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final JobLock jobLock;
+
+    @Scheduled(fixedDelayString = "${shareit.booking-archive.interval}",
+            initialDelayString = "${shareit.booking-archive.interval}")
+    public void archive() {
+        jobLock.runExclusively(LOCK, this::archiveFinished);
+    }
+
+    private void archiveFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int moved;
+        do {
+            moved = transaction.execute(status -> archiveBatch(cutoff));
+            total += moved;
+        } while (moved == properties.getBatchSize());
+        if (total > 0) {
+            log.info("В архив перенесено {} бронирований, закончившихся раньше {}", total, cutoff);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = bookingRepository.findIdsEndedBefore(cutoff, BookingStatus.WAITING,
+                Limit.of(properties.getBatchSize()));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Set<Long> itemIds = new HashSet<>();
+        Set<Long> ownerIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (BookingParticipantsView participants : bookingRepository.findParticipantsByIdIn(ids)) {
+            itemIds.add(participants.itemId());
+            ownerIds.add(participants.ownerId());
+            userIds.add(participants.bookerId());
+            userIds.add(participants.ownerId());
+        }
+        archivedBookingRepository.copyFromBookings(ids);
+        bookingRepository.deleteAllByIdIn(ids);
+        // Сводка вещей читает только рабочую таблицу: перенесённые бронирования из неё убираются.
+        // Строки вещей и пользователей блокируются после строк бронирований, как и при подтверждении
+        boolean summariesChanged = itemRepository.refreshBookingSummariesReferencing(itemIds, ids,
+                LocalDateTime.now()) > 0;
+        // Флаг не кэшируется и читается из базы, поэтому кэш пользователей здесь не трогается
+        userRepository.markBookingsArchived(userIds);
+        if (summariesChanged) {
+            userRepository.incrementItemsRevisions(ownerIds);
+        }
+        return ids.size();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Число бронирований в каждом из состояний {@link ru.practicum.shareit.booking.model.BookingState}.
+ */
+@Data
+@AllArgsConstructor
+public class BookingCountsDto {
+    private long all;
+    private long current;
+    private long past;
+    private long future;
+    private long waiting;
+    private long rejected;
+}
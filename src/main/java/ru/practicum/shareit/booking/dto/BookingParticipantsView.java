@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Вещь, автор бронирования и владелец вещи.
+ */
+public record BookingParticipantsView(long itemId, long bookerId, long ownerId) {
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Участники бронирования и версии строк, из которых собирается ответ GET /bookings/{id}.
+ */
+public record BookingVersionView(long bookerId, long ownerId, long bookingVersion, long itemVersion,
+                                 long bookerVersion) {
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemBookingSummaryDto {
+    private long itemId;
+    private String name;
+    private BookingCountsDto bookings;
+    /**
+     * Доля времени от начала первого до окончания последнего подтверждённого бронирования,
+     * когда вещь занята подтверждёнными бронированиями.
+     */
+    private double utilization;
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class OwnerBookingSummaryDto {
+    private BookingCountsDto bookings;
+    private List<ItemBookingSummaryDto> items;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.events;
+
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+
+/**
+ * Бронирование создано или изменён его статус. Получатели — автор бронирования и владелец вещи.
+ */
+public record BookingChangedEvent(long ownerId, BookingDtoResponse booking) {
+    public static final String TYPE = "booking.changed";
+
+    public static BookingChangedEvent of(Booking booking) {
+        return new BookingChangedEvent(booking.getItem().getOwner().getId(),
+                BookingMapper.toBookingDtoResponse(booking));
+    }
+}
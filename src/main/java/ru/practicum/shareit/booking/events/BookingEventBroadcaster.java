@@ -0,0 +1,185 @@
+package ru.practicum.shareit.booking.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserView;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Рассылает события бронирований подписчикам по SSE. Событие уходит после фиксации транзакции,
+ * в которой оно опубликовано. У каждой подписки свой ограниченный буфер; отправкой занимается виртуальный
+ * поток, который запускается, только когда в буфере что-то есть, поэтому простаивающие подписки потоков не держат.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(BookingEventProperties.class)
+public class BookingEventBroadcaster implements DisposableBean {
+    private static final String EVENT_NAME = "booking";
+
+    private final BookingEventProperties properties;
+    private final UserRepository userRepository;
+    private final Map<Long, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter sent;
+    private final Counter overflowed;
+
+    public BookingEventBroadcaster(BookingEventProperties properties, UserRepository userRepository,
+                                   MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.userRepository = userRepository;
+        this.sent = Counter.builder("shareit.booking-events.sent")
+                .description("События бронирований, отправленные подписчикам")
+                .register(meterRegistry);
+        this.overflowed = Counter.builder("shareit.booking-events.overflowed")
+                .description("Подписки, закрытые из-за переполнения буфера")
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking-events.subscriptions", subscriptionCount, AtomicInteger::get)
+                .description("Открытые подписки на события бронирований")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Открывает подписку пользователя. Сверх maxSubscriptionsPerUser закрываются самые старые подписки.
+     */
+    public SseEmitter subscribe(long userId) {
+        UserView user = userRepository.findCachedById(userId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
+        Subscription subscription = new Subscription(user.id(), new SseEmitter(properties.getTimeout().toMillis()));
+        SseEmitter emitter = subscription.emitter;
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
+        List<Subscription> userSubscriptions = subscriptions.compute(user.id(), (id, current) -> {
+            List<Subscription> list = current == null ? new CopyOnWriteArrayList<>() : current;
+            list.add(subscription);
+            return list;
+        });
+        subscriptionCount.incrementAndGet();
+        while (userSubscriptions.size() > properties.getMaxSubscriptionsPerUser()) {
+            Subscription oldest = userSubscriptions.get(0);
+            remove(oldest);
+            oldest.emitter.complete();
+        }
+        log.debug("Подписка пользователя {} на события бронирований", userId);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        // Сообщение собирается один раз и только читается потоками отправки всех подписчиков
+        Set<DataWithMediaType> message = SseEmitter.event()
+                .id(event.booking().getId() + ":" + event.booking().getStatus())
+                .name(EVENT_NAME)
+                .data(event.booking())
+                .build();
+        long bookerId = event.booking().getBooker().getId();
+        publish(bookerId, message);
+        if (event.ownerId() != bookerId) {
+            publish(event.ownerId(), message);
+        }
+    }
+
+    /**
+     * Комментарий SSE раз в heartbeat не даёт прокси закрыть простаивающее соединение и выявляет отключившихся
+     * клиентов.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-events.heartbeat}",
+            initialDelayString = "${shareit.booking-events.heartbeat}")
+    public void heartbeat() {
+        Set<DataWithMediaType> message = SseEmitter.event().comment("heartbeat").build();
+        subscriptions.values().forEach(list -> list.forEach(subscription -> subscription.offer(message)));
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.values().forEach(list -> list.forEach(subscription -> subscription.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private void publish(long userId, Set<DataWithMediaType> message) {
+        List<Subscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions != null) {
+            userSubscriptions.forEach(subscription -> subscription.offer(message));
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (id, list) -> {
+            if (list.remove(subscription)) {
+                subscriptionCount.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private final class Subscription {
+        private final long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> buffer;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscription(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(properties.getBufferSize());
+        }
+
+        void offer(Set<DataWithMediaType> message) {
+            if (!buffer.offer(message)) {
+                overflowed.increment();
+                log.info("Буфер подписки пользователя {} переполнен, подписка закрыта", userId);
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            do {
+                Set<DataWithMediaType> message;
+                while ((message = buffer.poll()) != null) {
+                    try {
+                        emitter.send(message);
+                        sent.increment();
+                    } catch (IOException | IllegalStateException e) {
+                        // Клиент отключился: асинхронный запрос завершается, чтобы контейнер освободил соединение
+                        log.debug("Подписка пользователя {} закрыта после ошибки отправки", userId, e);
+                        remove(this);
+                        buffer.clear();
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                sending.set(false);
+            } while (!buffer.isEmpty() && sending.compareAndSet(false, true));
+        }
+    }
+}
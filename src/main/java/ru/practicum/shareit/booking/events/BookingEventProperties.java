@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.events;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Подписки на события бронирований. Если клиент не успевает читать и в его буфере накопилось
+ * bufferSize событий, подписка закрывается: клиент переподключается и перечитывает бронирования.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking-events")
+public class BookingEventProperties {
+    private int bufferSize = 64;
+    private int maxSubscriptionsPerUser = 5;
+    private Duration timeout = Duration.ofMinutes(30);
+    private Duration heartbeat = Duration.ofSeconds(30);
+}
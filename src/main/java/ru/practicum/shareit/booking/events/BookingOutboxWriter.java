@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.outbox.OutboxMessage;
+import ru.practicum.shareit.outbox.OutboxRepository;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Записывает событие бронирования в outbox перед фиксацией транзакции, в которой изменено бронирование:
+ * сообщение сохраняется тогда и только тогда, когда сохраняется само изменение.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingOutboxWriter {
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        try {
+            outboxRepository.save(new OutboxMessage(BookingChangedEvent.TYPE, event.booking().getId(),
+                    objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.OutboxHandler;
+import ru.practicum.shareit.outbox.OutboxMessage;
+import ru.practicum.shareit.outbox.OutboxRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Считает переходы бронирований по статусам. Повторные доставки отсеиваются по отметкам в outbox_processed,
+ * поэтому переигрывание outbox, в том числе после перезапуска, счётчики не увеличивает.
+ */
+@Component
+public class BookingStatsHandler implements OutboxHandler {
+    private static final String NAME = "booking-stats";
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final OutboxRepository outboxRepository;
+    private final TransactionTemplate transaction;
+
+    public BookingStatsHandler(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                               OutboxRepository outboxRepository, PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.outboxRepository = outboxRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public String type() {
+        return BookingChangedEvent.TYPE;
+    }
+
+    @Override
+    public void handle(OutboxMessage message) {
+        String bookingStatus;
+        try {
+            bookingStatus = objectMapper.readTree(message.getPayload()).path("booking").path("status").asText();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Отметка фиксируется раньше увеличения счётчика: при сбое между ними переход не будет посчитан дважды
+        int marked = transaction.execute(status ->
+                outboxRepository.markProcessed(NAME, message.getId(), LocalDateTime.now()));
+        if (marked > 0) {
+            meterRegistry.counter("shareit.booking.status.changes", "status", bookingStatus).increment();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.interval;
+
+import java.time.LocalDateTime;
+
+public record BookingInterval(long id, LocalDateTime start, LocalDateTime end) {
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && end.isAfter(otherStart);
+    }
+}
@@ -0,0 +1,214 @@
+package ru.practicum.shareit.booking.interval;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Подтверждённые бронирования каждой вещи, которые ещё не закончились, упорядоченные по началу.
+ * Расписание вещи загружается из базы при первом обращении и хранится в ограниченном кэше не дольше
+ * shareit.booking-intervals.ttl, поэтому повторные проверки пересечения не обращаются к таблице бронирований.
+ * <p>
+ * Индекс свой у каждого экземпляра и только советует: подтверждения через этот экземпляр попадают в него после
+ * фиксации транзакции, остальные изменения — после перечитывания расписания. Пересечение подтверждённых
+ * бронирований гарантирует ограничение ex_booking_approved_overlap в PostgreSQL. В H2 такого ограничения нет,
+ * и там индекс защищает от пересечений только в пределах одного экземпляра.
+ * <p>
+ * Расписание индекса загружается только при создании и подтверждении бронирования, в их транзакциях
+ * с основной базой. Для страницы доступности вещи, расписания которой в индексе нет, держится отдельная копия.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(BookingIntervalProperties.class)
+public class BookingIntervalIndex {
+    private static final long NO_BOOKING = 0;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, ItemSchedule> schedules;
+    /**
+     * Интервалы, занятые ещё не зафиксированными подтверждениями этого экземпляра.
+     */
+    private final Map<Long, List<BookingInterval>> pending = new ConcurrentHashMap<>();
+    /**
+     * Расписания для чтения у вещей, которых нет в schedules. Сбрасываются подтверждением на этом экземпляре.
+     */
+    private final Cache<Long, ItemSchedule> snapshots;
+    private final TransactionTemplate primaryTransaction;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository, BookingIntervalProperties properties,
+                                PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.schedules = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        // Транзакция не только для чтения: соединение берётся из основной базы, а не из отстающей реплики
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public Optional<BookingInterval> findOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemSchedule schedule = getSchedule(itemId);
+        synchronized (schedule) {
+            return schedule.findOverlap(start, end);
+        }
+    }
+
+    /**
+     * Подтверждённые бронирования вещи, пересекающиеся с [start, end), по возрастанию начала. Подтверждения,
+     * которые ещё не зафиксированы, не учитываются. Если расписания вещи нет в индексе, оно читается
+     * из основной базы в копию для чтения, а сам индекс не наполняется.
+     */
+    public List<BookingInterval> findOverlapping(long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemSchedule schedule = schedules.getIfPresent(itemId);
+        if (schedule == null) {
+            schedule = snapshots.get(itemId, id -> primaryTransaction.execute(status -> load(id, NO_BOOKING)));
+        }
+        synchronized (schedule) {
+            return schedule.findOverlapping(start, end);
+        }
+    }
+
+    /**
+     * Атомарно проверяет, что интервал не пересекается ни с подтверждёнными бронированиями вещи, ни с
+     * подтверждениями, которые выполняются параллельно на этом экземпляре, и занимает его до конца текущей
+     * транзакции. В расписание интервал попадает только после её фиксации.
+     */
+    public void reserve(long itemId, BookingInterval interval) {
+        // Статус бронирования уже сменён в текущей транзакции: расписание, загруженное в ней, не должно содержать
+        // незафиксированный интервал, иначе после отката он остался бы в индексе
+        ItemSchedule schedule = schedules.get(itemId, id -> load(id, interval.id()));
+        pending.compute(itemId, (id, reserved) -> {
+            Optional<BookingInterval> overlap;
+            synchronized (schedule) {
+                overlap = schedule.findOverlap(interval.start(), interval.end());
+            }
+            if (overlap.isEmpty() && reserved != null) {
+                overlap = reserved.stream().filter(other -> other.overlaps(interval.start(), interval.end()))
+                        .findFirst();
+            }
+            overlap.ifPresent(other -> {
+                throw new ConflictException(String.format(
+                        "Бронирование %d пересекается с подтверждённым бронированием %d", interval.id(), other.id()));
+            });
+            List<BookingInterval> intervals = reserved == null ? new ArrayList<>() : reserved;
+            intervals.add(interval);
+            return intervals;
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete(itemId, interval, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(itemId, interval, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void complete(long itemId, BookingInterval interval, boolean committed) {
+        pending.computeIfPresent(itemId, (id, reserved) -> {
+            reserved.remove(interval);
+            return reserved.isEmpty() ? null : reserved;
+        });
+        if (!committed) {
+            return;
+        }
+        snapshots.invalidate(itemId);
+        // Расписание могло быть перечитано из базы до фиксации, поэтому интервал добавляется в текущее
+        ItemSchedule schedule = schedules.getIfPresent(itemId);
+        if (schedule != null) {
+            synchronized (schedule) {
+                schedule.add(interval);
+            }
+        }
+    }
+
+    private ItemSchedule getSchedule(long itemId) {
+        return schedules.get(itemId, id -> load(id, NO_BOOKING));
+    }
+
+    private ItemSchedule load(long itemId, long excludedBookingId) {
+        ItemSchedule loaded = new ItemSchedule();
+        bookingRepository.findIntervalsByItemId(itemId, BookingStatus.APPROVED, LocalDateTime.now()).stream()
+                .filter(interval -> interval.id() != excludedBookingId)
+                .forEach(loaded::add);
+        log.debug("Загружено расписание вещи {}", itemId);
+        return loaded;
+    }
+
+    private static class ItemSchedule {
+        private final NavigableSet<BookingInterval> intervals = new TreeSet<>(
+                Comparator.comparing(BookingInterval::start).thenComparingLong(BookingInterval::id));
+        private Duration longest = Duration.ZERO;
+
+        Optional<BookingInterval> findOverlap(LocalDateTime start, LocalDateTime end) {
+            pruneFinished();
+            // Пересечься с [start, end) может только интервал, начавшийся позже start - longest и раньше end.
+            LocalDateTime lowerBound = start.minus(longest);
+            for (BookingInterval interval : intervals.headSet(new BookingInterval(Long.MIN_VALUE, end, end), false)
+                    .descendingSet()) {
+                if (!interval.start().isAfter(lowerBound)) {
+                    break;
+                }
+                if (interval.overlaps(start, end)) {
+                    return Optional.of(interval);
+                }
+            }
+            return Optional.empty();
+        }
+
+        List<BookingInterval> findOverlapping(LocalDateTime start, LocalDateTime end) {
+            pruneFinished();
+            LocalDateTime lowerBound = start.minus(longest);
+            BookingInterval from = new BookingInterval(Long.MIN_VALUE, lowerBound, lowerBound);
+            BookingInterval to = new BookingInterval(Long.MIN_VALUE, end, end);
+            List<BookingInterval> overlapping = new ArrayList<>();
+            for (BookingInterval interval : intervals.subSet(from, false, to, false)) {
+                if (interval.overlaps(start, end)) {
+                    overlapping.add(interval);
+                }
+            }
+            return overlapping;
+        }
+
+        void add(BookingInterval interval) {
+            intervals.add(interval);
+            Duration duration = Duration.between(interval.start(), interval.end());
+            if (duration.compareTo(longest) > 0) {
+                longest = duration;
+            }
+        }
+
+        private void pruneFinished() {
+            LocalDateTime now = LocalDateTime.now();
+            while (!intervals.isEmpty() && !intervals.first().end().isAfter(now)) {
+                intervals.pollFirst();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Кэш расписаний вещей. Расписание перечитывается из базы не реже чем раз в ttl, поэтому подтверждения
+ * с других экземпляров и прямые записи в базу становятся видны индексу с этой задержкой.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking-intervals")
+public class BookingIntervalProperties {
+    private long maximumSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(1);
+}
@@ -1,16 +1,25 @@
 package ru.practicum.shareit.booking.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.BookingSummary;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.dto.ItemBookingCountsView;
+import ru.practicum.shareit.item.dto.ItemDtoShort;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.user.dto.UserDtoShort;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
+import java.time.Duration;
+
 @UtilityClass
 public class BookingMapper {
     public BookingDtoResponse toBookingDtoResponse(Booking booking) {
@@ -24,6 +33,31 @@ public class BookingMapper {
         );
     }
 
+    /**
+     * Ответ для только что созданного бронирования, вещь и автор которого заданы ссылками без загрузки.
+     */
+    public BookingDtoResponse toBookingDtoResponse(Booking booking, ItemDtoShort item, UserDtoShort booker) {
+        return new BookingDtoResponse(
+                booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                item,
+                booker,
+                booking.getStatus()
+        );
+    }
+
+    public BookingDtoResponse toBookingDtoResponse(ArchivedBooking booking) {
+        return new BookingDtoResponse(
+                booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                ItemMapper.toItemDtoShort(booking.getItem()),
+                UserMapper.toUserDtoShort(booking.getBooker()),
+                booking.getStatus()
+        );
+    }
+
     public BookingDtoShort toBookingDtoShort(Booking booking) {
         return new BookingDtoShort(
                 booking.getId(),
@@ -34,6 +68,16 @@ public class BookingMapper {
         );
     }
 
+    public BookingDtoShort toBookingDtoShort(BookingSummary summary) {
+        return new BookingDtoShort(
+                summary.getId(),
+                summary.getStart(),
+                summary.getEnd(),
+                BookingStatus.APPROVED,
+                summary.getBookerId()
+        );
+    }
+
     public Booking toBooking(BookingDtoRequest bookingDtoRequest, Item item, User booker) {
         Booking booking = new Booking();
         booking.setItem(item);
@@ -43,4 +87,23 @@ public class BookingMapper {
         booking.setStatus(BookingStatus.WAITING);
         return booking;
     }
+
+    /**
+     * Прошедшие бронирования не считаются отдельно: это все, кроме текущих и будущих.
+     */
+    public ItemBookingSummaryDto toItemBookingSummaryDto(ItemBookingCountsView counts) {
+        double utilization = 0;
+        if (counts.bookedFrom() != null) {
+            long span = Duration.between(counts.bookedFrom(), counts.bookedUntil()).toSeconds();
+            utilization = span > 0 ? (double) counts.bookedSeconds() / span : 0;
+        }
+        return new ItemBookingSummaryDto(
+                counts.id(),
+                counts.name(),
+                new BookingCountsDto(counts.total(), counts.current(),
+                        counts.total() - counts.current() - counts.future(), counts.future(),
+                        counts.waiting(), counts.rejected()),
+                utilization
+        );
+    }
 }
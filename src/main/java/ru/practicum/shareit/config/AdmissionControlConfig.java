@@ -0,0 +1,52 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Оборачивает источник данных в {@link AdmissionControlDataSource}. Обёртка ставится последней, поверх
+ * маршрутизации реплики ({@link ReadReplicaConfig}), поэтому разрешение нужно и для соединений реплики.
+ * Число разрешений задаётся shareit.db.admission.permits и должно быть меньше размера пула Hikari,
+ * время ожидания — shareit.db.admission.timeout. Open-in-view выключен (spring.jpa.open-in-view): иначе
+ * соединение и разрешение запроса держались бы до конца ответа, в том числе асинхронного.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.db.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig {
+    @Bean
+    public static AdmissionControlPostProcessor admissionControlPostProcessor(
+            Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new AdmissionControlPostProcessor(environment, meterRegistry);
+    }
+
+    @RequiredArgsConstructor
+    static class AdmissionControlPostProcessor implements BeanPostProcessor, Ordered {
+        private final Environment environment;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof AdmissionControlDataSource) {
+                return bean;
+            }
+            int permits = environment.getRequiredProperty("shareit.db.admission.permits", Integer.class);
+            Duration timeout = environment.getRequiredProperty("shareit.db.admission.timeout", Duration.class);
+            return new AdmissionControlDataSource(dataSource, permits, timeout, meterRegistry.getObject());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пропускает к пулу соединений не больше permits потоков одновременно, остальные ждут своей очереди
+ * на семафоре. На виртуальных потоках число одновременных запросов не ограничено пулом потоков Tomcat,
+ * и без этого все они разом упирались бы в пул соединений.
+ * Разрешение выдаётся потоку, а не соединению: пока поток держит соединение, следующие соединения
+ * (REQUIRES_NEW, реплика при открытом соединении с основной базой) он получает без нового разрешения,
+ * и два потока не могут заблокировать друг друга, держа по разрешению и ожидая второго. Разрешение
+ * возвращается, когда закрыто последнее соединение потока. Разрешений должно быть меньше, чем соединений
+ * в пуле: остаток пула достаётся этим вложенным соединениям.
+ */
+public class AdmissionControlDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final ThreadLocal<Admission> admissions = new ThreadLocal<>();
+    private final Duration timeout;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public AdmissionControlDataSource(DataSource target, int permits, Duration timeout, MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.timeout = timeout;
+        this.waitTimer = Timer.builder("shareit.db.admission.wait")
+                .description("Ожидание разрешения на получение соединения")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("shareit.db.admission.rejected")
+                .description("Запросы соединения, не дождавшиеся разрешения")
+                .register(meterRegistry);
+        Gauge.builder("shareit.db.admission.queued", this.permits, Semaphore::getQueueLength)
+                .description("Потоки, ожидающие разрешения")
+                .register(meterRegistry);
+        Gauge.builder("shareit.db.admission.available", this.permits, Semaphore::availablePermits)
+                .description("Свободные разрешения")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Admission admission = admit();
+        try {
+            return releasingOnClose(super.getConnection(), admission);
+        } catch (SQLException | RuntimeException e) {
+            leave(admission);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Admission admission = admit();
+        try {
+            return releasingOnClose(super.getConnection(username, password), admission);
+        } catch (SQLException | RuntimeException e) {
+            leave(admission);
+            throw e;
+        }
+    }
+
+    private Admission admit() throws SQLException {
+        Admission current = admissions.get();
+        // Соединение могло быть закрыто в другом потоке: разрешение уже возвращено, и счётчик не оживает
+        if (current != null && current.connections.getAndUpdate(n -> n > 0 ? n + 1 : n) > 0) {
+            return current;
+        }
+        acquire();
+        Admission admission = new Admission();
+        admissions.set(admission);
+        return admission;
+    }
+
+    private void leave(Admission admission) {
+        if (admission.connections.decrementAndGet() == 0) {
+            if (admissions.get() == admission) {
+                admissions.remove();
+            }
+            permits.release();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        long started = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Ожидание соединения прервано", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new SQLTransientConnectionException(String.format(
+                    "Нет свободного разрешения на соединение за %d мс", timeout.toMillis()));
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection, Admission admission) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (isClose(method)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                leave(admission);
+                            }
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private static boolean isClose(Method method) {
+        return "close".equals(method.getName()) && method.getParameterCount() == 0;
+    }
+
+    /**
+     * Разрешение потока и число его открытых соединений.
+     */
+    private static final class Admission {
+        private final AtomicInteger connections = new AtomicInteger(1);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import ru.practicum.shareit.metrics.QueryCounter;
+
+/**
+ * Асинхронные тела ответов (StreamingResponseBody) выполняются в пуле applicationTaskExecutor.
+ * Декоратор переносит в его потоки состояние запроса, которое фильтры держат в ThreadLocal: счётчик обращений
+ * к базе и выбор базы для чтений.
+ */
+@Configuration
+public class AsyncTaskConfig {
+    @Bean
+    public TaskDecorator requestContextTaskDecorator() {
+        return task -> QueryCounter.wrap(ReadYourWritesFilter.wrap(task));
+    }
+}
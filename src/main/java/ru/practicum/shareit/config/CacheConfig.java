@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Кэши пользователей и вещей на Caffeine. Размер и время жизни задаются в spring.cache.caffeine.spec.
+ * В кэше лежат неизменяемые представления ({@code UserView}, {@code ItemView}) с полями, которые меняются
+ * только через сервисы с {@code @CacheEvict}. Счётчики и флаги, обновляемые массовыми UPDATE, не кэшируются.
+ * Запись и удаление из кэша внутри транзакции откладываются до её фиксации,
+ * чтобы параллельное чтение не вернуло в кэш ещё не изменённый объект.
+ * При промахе кэшируемые запросы читают основную базу, а не реплику: после удаления из кэша отстающая
+ * реплика могла бы вернуть в него прежнюю строку на всё время жизни записи.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(properties.getCaffeine().getSpec());
+        cacheManager.setCacheNames(properties.getCacheNames());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Блокировка фоновой задачи, общая для всех экземпляров приложения: строка job_lock с именем задачи,
+ * заблокированная на время прохода. Экземпляр, которому строка не досталась, проход пропускает.
+ * Строка держится отдельным соединением с основной базой вне транзакций Spring: задача по-прежнему
+ * разбивает работу на свои короткие транзакции, а при падении экземпляра блокировка снимается вместе
+ * с соединением.
+ */
+@Slf4j
+@Component
+public class JobLock {
+    private final DataSource dataSource;
+    private final Set<String> registered = ConcurrentHashMap.newKeySet();
+
+    public JobLock(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Выполняет task, если блокировка name свободна. Возвращает false, если её держит другой экземпляр
+     * или база недоступна.
+     */
+    public boolean runExclusively(String name, Runnable task) {
+        try (Connection connection = dataSource.getConnection()) {
+            register(connection, name);
+            connection.setAutoCommit(false);
+            try {
+                if (!lock(connection, name)) {
+                    log.debug("Задачу {} выполняет другой экземпляр", name);
+                    return false;
+                }
+                task.run();
+                return true;
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось захватить блокировку задачи {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private void register(Connection connection, String name) throws SQLException {
+        if (registered.contains(name)) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO job_lock (name) SELECT ? "
+                + "WHERE NOT EXISTS (SELECT 1 FROM job_lock WHERE name = ?)")) {
+            statement.setString(1, name);
+            statement.setString(2, name);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            // Строку одновременно добавил другой экземпляр
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+        }
+        registered.add(name);
+    }
+
+    private static boolean lock(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT name FROM job_lock WHERE name = ? FOR UPDATE SKIP LOCKED")) {
+            statement.setString(1, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.utils.IndexedBy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Проверяет при запуске, что у каждого запроса репозиториев объявлены индексы через {@link IndexedBy}
+ * и что эти индексы действительно есть в базе. Если хотя бы один запрос не покрыт, приложение не стартует.
+ * <p>
+ * Проверка не смотрит на план выполнения: она ловит забытую аннотацию и индекс, удалённый или переименованный
+ * миграцией, но не то, что планировщик выбирает объявленный индекс. Соответствие запроса и индекса
+ * подтверждается через EXPLAIN при добавлении запроса.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.index-check.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryIndexVerifier implements SmartInitializingSingleton {
+    private final ListableBeanFactory beanFactory;
+    private final DataSource dataSource;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> problems = new ArrayList<>();
+        Map<String, List<List<String>>> indexesByTable = new HashMap<>();
+        int checked = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Repositories repositories = new Repositories(beanFactory);
+            for (Class<?> domainType : repositories) {
+                RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+                for (Method method : information.getQueryMethods()) {
+                    String query = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                    IndexedBy indexedBy = method.getAnnotation(IndexedBy.class);
+                    if (indexedBy == null) {
+                        problems.add(query + ": не указан @IndexedBy");
+                        continue;
+                    }
+                    for (String spec : indexedBy.value()) {
+                        IndexSpec index = IndexSpec.parse(spec);
+                        List<List<String>> indexes = indexesByTable.computeIfAbsent(index.table(),
+                                table -> readIndexes(metaData, table));
+                        if (indexes.stream().noneMatch(index::isPrefixOf)) {
+                            problems.add(query + ": нет индекса " + spec);
+                        }
+                    }
+                    checked++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось прочитать индексы базы данных", e);
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Запросы без индексов:\n" + String.join("\n", problems));
+        }
+        log.info("Индексы проверены для {} запросов", checked);
+    }
+
+    private static List<List<String>> readIndexes(DatabaseMetaData metaData, String table) {
+        try {
+            String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            Map<String, TreeMap<Short, String>> columnsByIndex = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, true)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName != null && column != null) {
+                        columnsByIndex.computeIfAbsent(indexName, n -> new TreeMap<>())
+                                .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return columnsByIndex.values().stream().map(columns -> List.copyOf(columns.values())).toList();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось прочитать индексы таблицы " + table, e);
+        }
+    }
+
+    private record IndexSpec(String table, List<String> columns) {
+        static IndexSpec parse(String spec) {
+            int open = spec.indexOf('(');
+            if (open < 1 || !spec.endsWith(")")) {
+                throw new IllegalArgumentException("Некорректное описание индекса: " + spec);
+            }
+            return new IndexSpec(spec.substring(0, open).trim().toLowerCase(Locale.ROOT),
+                    Arrays.stream(spec.substring(open + 1, spec.length() - 1).split(","))
+                            .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                            .toList());
+        }
+
+        boolean isPrefixOf(List<String> indexColumns) {
+            return indexColumns.size() >= columns.size()
+                    && indexColumns.subList(0, columns.size()).equals(columns);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Отправляет транзакции только для чтения в реплику. Источник данных оборачивается
+ * в {@link LazyConnectionDataSourceProxy}: соединение берётся при первом запросе, когда признак
+ * readOnly транзакции уже известен, и для таких транзакций — из {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.db.replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadReplicaConfig {
+    @Bean
+    public static ReadReplicaPostProcessor readReplicaPostProcessor(
+            ObjectProvider<ReplicaLagMonitor> replicaLagMonitor, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ReadReplicaPostProcessor(replicaLagMonitor, meterRegistry);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaProperties properties, MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(properties, meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaProperties properties) {
+        return new ReadYourWritesFilter(properties.getStickiness());
+    }
+
+    /**
+     * Срабатывает раньше обёртки {@link AdmissionControlConfig}, чтобы та оказалась снаружи. Порядок
+     * учитывается, только если тип бина известен до его создания, поэтому фабричный метод возвращает этот класс.
+     */
+    @RequiredArgsConstructor
+    static class ReadReplicaPostProcessor implements BeanPostProcessor, Ordered {
+        private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof LazyConnectionDataSourceProxy
+                    || bean instanceof AdmissionControlDataSource) {
+                return bean;
+            }
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(dataSource);
+            proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(dataSource, replicaLagMonitor::getObject,
+                    meterRegistry.getObject()));
+            return proxy;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Запоминает пользователей (X-Sharer-User-Id), которые успешно что-то изменили, и в течение
+ * shareit.db.replica.stickiness отправляет их чтения в основную базу, чтобы отстающая реплика
+ * не вернула им данные без их собственных изменений. Чтения внутри изменяющего запроса тоже идут в основную базу.
+ * <p>
+ * Недавние авторы изменений хранятся в памяти каждого экземпляра. Если балансировщик отправит следующий запрос
+ * пользователя на другой экземпляр, тот о его изменениях не знает и может прочитать данные из реплики.
+ * Гарантия действует только при привязке пользователя к экземпляру или при отставании реплики меньше stickiness.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration stickiness) {
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(stickiness).build();
+    }
+
+    static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Задача, которая выбирает базу для чтения так же, как текущий запрос, в каком бы потоке она ни выполнялась.
+     * Асинхронное тело ответа выполняется после выхода из фильтра, когда решение в потоке запроса уже сброшено.
+     */
+    static Runnable wrap(Runnable task) {
+        Boolean primaryRequired = PRIMARY_REQUIRED.get();
+        if (primaryRequired == null) {
+            return task;
+        }
+        return () -> {
+            PRIMARY_REQUIRED.set(primaryRequired);
+            try {
+                task.run();
+            } finally {
+                PRIMARY_REQUIRED.remove();
+            }
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String userId = request.getHeader(USER_HEADER);
+        boolean write = !isReadOnly(request.getMethod());
+        PRIMARY_REQUIRED.set(write || (userId != null && recentWriters.getIfPresent(userId) != null));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PRIMARY_REQUIRED.remove();
+            if (write && userId != null && response.getStatus() < 400) {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        }
+    }
+
+    private static boolean isReadOnly(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Пул соединений реплики и её текущее отставание. Отставание проверяется раз в
+ * shareit.db.replica.lag-check-interval; пока проверка не прошла, реплика считается недоступной.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements DisposableBean {
+    private final HikariDataSource replica;
+    private final ReplicaProperties properties;
+    private volatile Duration lag;
+
+    public ReplicaLagMonitor(ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica");
+        config.setJdbcUrl(properties.getUrl());
+        config.setUsername(properties.getUsername());
+        config.setPassword(properties.getPassword());
+        config.setMaximumPoolSize(properties.getMaximumPoolSize());
+        config.setReadOnly(true);
+        // Приложение стартует и без реплики, чтения тогда идут в основную базу
+        config.setInitializationFailTimeout(-1);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        this.replica = new HikariDataSource(config);
+        Gauge.builder("shareit.db.replica.lag", this, monitor -> {
+                    Duration current = monitor.lag;
+                    return current == null ? Double.NaN : current.toMillis() / 1000.0;
+                })
+                .description("Отставание реплики в секундах, NaN если реплика недоступна")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        check();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.db.replica.lag-check-interval}")
+    public void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+            resultSet.next();
+            lag = Duration.ofMillis(Math.round(resultSet.getDouble(1) * 1000));
+        } catch (SQLException e) {
+            markUnavailable(e);
+        }
+    }
+
+    public boolean isAvailable() {
+        Duration current = lag;
+        return current != null && current.compareTo(properties.getMaxLag()) <= 0;
+    }
+
+    public DataSource dataSource() {
+        return replica;
+    }
+
+    /**
+     * Отправляет чтения в основную базу до следующей успешной проверки отставания.
+     */
+    public void markUnavailable(SQLException e) {
+        if (lag != null) {
+            log.warn("Реплика недоступна, чтения переключены на основную базу: {}", e.getMessage());
+        }
+        lag = null;
+    }
+
+    @Override
+    public void destroy() {
+        replica.close();
+    }
+}
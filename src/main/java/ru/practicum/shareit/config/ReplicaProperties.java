@@ -0,0 +1,28 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Реплика для транзакций только для чтения. Отставание реплики в секундах возвращает lagQuery,
+ * по умолчанию запрос для потоковой репликации PostgreSQL. Чтения из основной базы после изменений (stickiness)
+ * учитываются в памяти каждого экземпляра отдельно, см. {@link ReadYourWritesFilter}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.db.replica")
+public class ReplicaProperties {
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    private Duration maxLag = Duration.ofSeconds(5);
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+    private Duration stickiness = Duration.ofSeconds(5);
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+}
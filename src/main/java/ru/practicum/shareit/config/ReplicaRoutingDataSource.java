@@ -0,0 +1,68 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Источник соединений для транзакций только для чтения. Соединение берётся из реплики, если её отставание
+ * не больше shareit.db.replica.max-lag и текущему запросу не нужно видеть собственные изменения
+ * (см. {@link ReadYourWritesFilter}). Иначе, как и при ошибке соединения с репликой, — из основной базы.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final Supplier<ReplicaLagMonitor> replica;
+    private final Counter toReplica;
+    private final Counter stickyToPrimary;
+    private final Counter laggingToPrimary;
+    private final Counter failedToPrimary;
+
+    public ReplicaRoutingDataSource(DataSource primary, Supplier<ReplicaLagMonitor> replica,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.toReplica = counter(meterRegistry, "replica", "available");
+        this.stickyToPrimary = counter(meterRegistry, "primary", "read_your_writes");
+        this.laggingToPrimary = counter(meterRegistry, "primary", "lag");
+        this.failedToPrimary = counter(meterRegistry, "primary", "error");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadYourWritesFilter.isPrimaryRequired()) {
+            stickyToPrimary.increment();
+            return primary.getConnection();
+        }
+        ReplicaLagMonitor monitor = replica.get();
+        if (!monitor.isAvailable()) {
+            laggingToPrimary.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = monitor.dataSource().getConnection();
+            toReplica.increment();
+            return connection;
+        } catch (SQLException e) {
+            monitor.markUnavailable(e);
+            failedToPrimary.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("shareit.db.replica.routing")
+                .description("Соединения транзакций только для чтения по базе, из которой они получены")
+                .tags("target", target, "reason", reason)
+                .register(meterRegistry);
+    }
+}
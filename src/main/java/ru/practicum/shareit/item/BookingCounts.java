@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Счётчики бронирований вещи для сводки владельца. Меняются только запросами {@link ItemRepository},
+ * при сохранении вещи не записываются.
+ */
+@Embeddable
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingCounts {
+    @Column(name = "bookings_total", insertable = false, updatable = false)
+    private long total;
+
+    @Column(name = "bookings_waiting", insertable = false, updatable = false)
+    private long waiting;
+
+    @Column(name = "bookings_rejected", insertable = false, updatable = false)
+    private long rejected;
+
+    @Column(name = "bookings_future", insertable = false, updatable = false)
+    private long future;
+
+    @Column(name = "bookings_current", insertable = false, updatable = false)
+    private long current;
+
+    /**
+     * Суммарная длительность подтверждённых бронирований.
+     */
+    @Column(name = "booked_seconds", insertable = false, updatable = false)
+    private long bookedSeconds;
+
+    /**
+     * Начало первого и окончание последнего подтверждённых бронирований.
+     */
+    @Column(name = "booked_from", insertable = false, updatable = false)
+    private LocalDateTime bookedFrom;
+
+    @Column(name = "booked_until", insertable = false, updatable = false)
+    private LocalDateTime bookedUntil;
+
+    /**
+     * Ближайшее начало или окончание бронирования, после которого нужно пересчитать future и current.
+     */
+    @Column(name = "bookings_next_transition", insertable = false, updatable = false)
+    private LocalDateTime nextTransition;
+}
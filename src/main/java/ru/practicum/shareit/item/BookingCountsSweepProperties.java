@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Пересчёт будущих и текущих бронирований вещей. Вещи пересчитываются пачками по batchSize,
+ * каждая пачка в своей транзакции.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking-counts.sweep")
+public class BookingCountsSweepProperties {
+    private boolean enabled = false;
+    private Duration interval = Duration.ofMinutes(1);
+    private int batchSize = 1000;
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Пересчитывает будущие и текущие бронирования у вещей, бронирование которых началось или закончилось
+ * с прошлого прохода. Остальные счётчики меняются сразу при создании и подтверждении бронирования.
+ * Вещи блокируются и пересчитываются пачками по возрастанию id, чтобы после миграции, когда пересчёта ждут
+ * все вещи, не держать блокировку всей таблицы.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(BookingCountsSweepProperties.class)
+@ConditionalOnProperty(name = "shareit.booking-counts.sweep.enabled", havingValue = "true")
+public class BookingCountsSweeper {
+    private final ItemRepository itemRepository;
+    private final BookingCountsSweepProperties properties;
+    private final PlatformTransactionManager transactionManager;
+
+    @Scheduled(fixedDelayString = "${shareit.booking-counts.sweep.interval}",
+            initialDelayString = "${shareit.booking-counts.sweep.interval}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int total = 0;
+        long lastId = 0;
+        List<Long> itemIds;
+        do {
+            long afterId = lastId;
+            itemIds = transaction.execute(status -> sweepBatch(now, afterId));
+            if (!itemIds.isEmpty()) {
+                total += itemIds.size();
+                lastId = itemIds.get(itemIds.size() - 1);
+            }
+        } while (itemIds.size() == properties.getBatchSize());
+        if (total > 0) {
+            log.info("Счётчики бронирований пересчитаны у {} вещей", total);
+        }
+    }
+
+    private List<Long> sweepBatch(LocalDateTime now, long afterId) {
+        List<Long> itemIds = itemRepository.lockIdsWithStaleBookingCounts(now, afterId, properties.getBatchSize());
+        if (!itemIds.isEmpty()) {
+            itemRepository.refreshBookingCounts(itemIds, now);
+        }
+        return itemIds;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Копия подтверждённого бронирования, которая хранится в строке вещи как последнее или следующее бронирование.
+ * Имена столбцов задаются в {@link Item}.
+ */
+@Embeddable
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingSummary {
+    private Long id;
+    private Long bookerId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Сдвигает сводку бронирований у вещей, следующее бронирование которых уже началось:
+ * оно становится последним, а следующим — ближайшее из оставшихся подтверждённых.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking-summary.sweep.enabled", havingValue = "true")
+public class BookingSummarySweeper {
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.sweep.interval}",
+            initialDelayString = "${shareit.booking-summary.sweep.interval}")
+    @Transactional
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ownerIds = itemRepository.findOwnerIdsWithStaleBookingSummary(now);
+        if (ownerIds.isEmpty()) {
+            return;
+        }
+        // Строки вещей блокируются раньше строк владельцев, в том же порядке, что и при подтверждении бронирования
+        int updated = itemRepository.rollForwardBookingSummaries(now);
+        userRepository.incrementItemsRevisions(ownerIds);
+        log.info("Сводка бронирований сдвинута у {} вещей", updated);
+    }
+}
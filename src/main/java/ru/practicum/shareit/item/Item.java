@@ -2,11 +2,13 @@ package ru.practicum.shareit.item;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.practicum.shareit.user.model.User;
 
 
 @Entity
 @Table(name = "items")
+@DynamicUpdate
 @AllArgsConstructor
 @Builder
 @Getter
@@ -16,7 +18,8 @@ import ru.practicum.shareit.user.model.User;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -25,10 +28,39 @@ public class Item {
 
     private Boolean available = false;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
+    @ToString.Exclude
     private User owner;
 
+    @Embedded
+    @AttributeOverride(name = "id", column = @Column(name = "last_booking_id"))
+    @AttributeOverride(name = "bookerId", column = @Column(name = "last_booking_booker_id"))
+    @AttributeOverride(name = "start", column = @Column(name = "last_booking_start"))
+    @AttributeOverride(name = "end", column = @Column(name = "last_booking_end"))
+    private BookingSummary lastBooking;
+
+    @Embedded
+    @AttributeOverride(name = "id", column = @Column(name = "next_booking_id"))
+    @AttributeOverride(name = "bookerId", column = @Column(name = "next_booking_booker_id"))
+    @AttributeOverride(name = "start", column = @Column(name = "next_booking_start"))
+    @AttributeOverride(name = "end", column = @Column(name = "next_booking_end"))
+    private BookingSummary nextBooking;
+
+    private long commentCount;
+
+    @Embedded
+    @ToString.Exclude
+    private BookingCounts bookingCounts;
+
+    /**
+     * Запрос, в ответ на который добавлена вещь.
+     */
+    private Long requestId;
+
+    @Version
+    private long version;
+
     public Item(String name, String description, Boolean available) {
         this.name = name;
         this.description = description;
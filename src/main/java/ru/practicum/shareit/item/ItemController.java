@@ -2,15 +2,25 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.comment.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.utils.BatchRowResult;
 import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.JsonStreamWriter;
 import ru.practicum.shareit.utils.Update;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -18,7 +28,11 @@ import java.util.List;
 @RestController
 @RequestMapping("/items")
 public class ItemController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
     private final ItemService itemService;
+    private final JsonStreamWriter jsonStreamWriter;
 
     @PostMapping
     public ItemDtoResponse saveNewItem(@Validated(Create.class) @RequestBody ItemDtoRequest itemDtoRequest,
@@ -27,6 +41,16 @@ public class ItemController {
         return itemService.saveNewItem(itemDtoRequest, userId);
     }
 
+    /**
+     * Создаёт до 1000 вещей за запрос, результат возвращается по каждой строке.
+     */
+    @PostMapping("/batch")
+    public List<BatchRowResult<ItemDtoResponse>> saveNewItems(@RequestBody List<ItemDtoRequest> itemDtoRequests,
+                                                              @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("POST / items / batch {} / user {}", itemDtoRequests.size(), userId);
+        return itemService.saveNewItems(itemDtoRequests, userId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDtoResponse updateItem(@PathVariable long itemId,
                                       @Validated(Update.class) @RequestBody ItemDtoRequest itemDtoRequest,
@@ -36,21 +60,57 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDtoResponse getItemById(@PathVariable long itemId, @RequestHeader("X-Sharer-User-Id") long userId) {
+    public ItemDtoResponse getItemById(@PathVariable long itemId, @RequestHeader("X-Sharer-User-Id") long userId,
+                                       WebRequest request) {
         log.info("GET / items {} / user {}", itemId, userId);
+        if (request.checkNotModified(itemService.getItemTag(itemId, userId))) {
+            return null;
+        }
         return itemService.getItemById(itemId, userId);
     }
 
     @GetMapping
-    public List<ItemDtoResponse> getItemsByOwner(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public List<ItemDtoResponse> getItemsByOwner(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 WebRequest request) {
         log.info("GET / items / user {}", userId);
+        if (request.checkNotModified(itemService.getItemsTag(userId))) {
+            return null;
+        }
         return itemService.getItemsByOwner(userId);
     }
 
+    /**
+     * Все вещи владельца, отдаются по мере чтения из базы.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamItemsByOwner(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.info("GET / items / stream / user {}", userId);
+        return jsonStreamWriter.write(accept, itemService.streamItemsByOwner(userId));
+    }
+
+    /**
+     * Свободные и занятые подтверждёнными бронированиями промежутки вещи в окне [from, to), по умолчанию
+     * на 30 дней вперёд.
+     */
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(
+            @PathVariable long itemId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime to) {
+        log.info("GET / availability / item {}", itemId);
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping("/search")
-    public List<ItemDtoResponse> getItemsBySearch(@RequestParam String text) {
+    public List<ItemDtoResponse> getItemsBySearch(@RequestParam String text,
+                                                  @RequestParam(defaultValue = "0") int from,
+                                                  @RequestParam(defaultValue = "20") int size) {
         log.info("GET / search / {}", text);
-        return itemService.getItemBySearch(text);
+        return itemService.getItemBySearch(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -60,4 +120,23 @@ public class ItemController {
         log.info("POST / comment / item {}", itemId);
         return itemService.saveNewComment(itemId, commentDtoRequest, userId);
     }
+
+    /**
+     * Отзывы вещи от новых к старым. Если страница заполнена, курсор следующей передаётся в заголовке X-Next-Cursor.
+     */
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDtoResponse>> getComments(
+            @PathVariable long itemId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        log.info("GET / comments / item {}", itemId);
+        List<CommentDtoResponse> comments = itemService.getComments(itemId, Cursor.decode(cursor), size);
+        if (comments.size() < size) {
+            return ResponseEntity.ok(comments);
+        }
+        CommentDtoResponse last = comments.get(comments.size() - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, new Cursor(last.getCreated(), last.getId()).encode())
+                .body(comments);
+    }
 }
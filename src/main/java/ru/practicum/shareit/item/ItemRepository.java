@@ -1,17 +1,269 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.item.dto.ItemBookingCountsView;
+import ru.practicum.shareit.item.dto.ItemDetailsView;
+import ru.practicum.shareit.item.dto.ItemVersionView;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.utils.IndexedBy;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    /**
+     * Пересчитывает последнее и следующее подтверждённые бронирования вещей относительно момента :now.
+     * При одинаковом окончании последним считается бронирование с большим id, следующим — с меньшим.
+     */
+    String REFRESH_BOOKING_SUMMARY = "UPDATE items i " +
+            "SET (last_booking_id, last_booking_booker_id, last_booking_start, last_booking_end) = " +
+            "(SELECT b.id, b.booker_id, b.start_date, b.end_date FROM bookings b " +
+            "WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date <= :now " +
+            "ORDER BY b.end_date DESC, b.id DESC LIMIT 1), " +
+            "(next_booking_id, next_booking_booker_id, next_booking_start, next_booking_end) = " +
+            "(SELECT b.id, b.booker_id, b.start_date, b.end_date FROM bookings b " +
+            "WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date > :now " +
+            "ORDER BY b.end_date, b.id LIMIT 1), " +
+            "version = version + 1 ";
+
+    /**
+     * Пересчитывает будущие и текущие бронирования вещей относительно момента :now. Читается только рабочая
+     * таблица: в архиве бронирования давно закончились.
+     */
+    String REFRESH_BOOKING_COUNTS = "UPDATE items i SET " +
+            "bookings_future = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id AND b.start_date > :now), " +
+            "bookings_current = (SELECT COUNT(*) FROM bookings b " +
+            "WHERE b.item_id = i.id AND b.start_date <= :now AND b.end_date >= :now), " +
+            "bookings_next_transition = (SELECT MIN(CASE WHEN b.start_date > :now THEN b.start_date " +
+            "ELSE b.end_date END) FROM bookings b WHERE b.item_id = i.id AND b.end_date >= :now) ";
+
+    /**
+     * Длительность бронирования b в секундах.
+     */
+    String BOOKED_SECONDS = "CAST(EXTRACT(EPOCH FROM b.end_date) - EXTRACT(EPOCH FROM b.start_date) AS BIGINT)";
+
+    /**
+     * Счётчики, которые меняются при создании и подтверждении бронирования, с начала истории вещи, включая архив.
+     */
+    String REFRESH_BOOKING_TOTALS = "UPDATE items i SET " +
+            "bookings_total = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id) + " +
+            "(SELECT COUNT(*) FROM bookings_archive b WHERE b.item_id = i.id), " +
+            "bookings_waiting = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id AND b.status = 'WAITING') + " +
+            "(SELECT COUNT(*) FROM bookings_archive b WHERE b.item_id = i.id AND b.status = 'WAITING'), " +
+            "bookings_rejected = (SELECT COUNT(*) FROM bookings b " +
+            "WHERE b.item_id = i.id AND b.status = 'REJECTED') + " +
+            "(SELECT COUNT(*) FROM bookings_archive b WHERE b.item_id = i.id AND b.status = 'REJECTED'), " +
+            "booked_seconds = COALESCE((SELECT SUM(" + BOOKED_SECONDS + ") FROM bookings b " +
+            "WHERE b.item_id = i.id AND b.status = 'APPROVED'), 0) + " +
+            "COALESCE((SELECT SUM(" + BOOKED_SECONDS + ") FROM bookings_archive b " +
+            "WHERE b.item_id = i.id AND b.status = 'APPROVED'), 0), " +
+            "booked_from = (SELECT MIN(b.start_date) FROM (SELECT item_id, status, start_date FROM bookings " +
+            "UNION ALL SELECT item_id, status, start_date FROM bookings_archive) b " +
+            "WHERE b.item_id = i.id AND b.status = 'APPROVED'), " +
+            "booked_until = (SELECT MAX(b.end_date) FROM (SELECT item_id, status, end_date FROM bookings " +
+            "UNION ALL SELECT item_id, status, end_date FROM bookings_archive) b " +
+            "WHERE b.item_id = i.id AND b.status = 'APPROVED')";
+
+    @IndexedBy("items(id)")
+    @EntityGraph(attributePaths = "owner")
+    Optional<Item> findWithOwnerById(long itemId);
+
+    /**
+     * Название, доступность и владелец вещи из кэша. Для связей сущностей используется
+     * {@link #getReferenceById(Object)}, для обновления — {@link #findWithOwnerById(long)}.
+     * При промахе вещь читается вне текущей транзакции из основной базы: транзакция только для чтения
+     * могла бы прочитать отстающую реплику и положить в кэш строку, изменённую до её отставания.
+     */
+    @IndexedBy("items(id)")
+    @Cacheable(cacheNames = CacheConfig.ITEMS, unless = "#result == null")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemView(i.id, i.name, i.available, i.owner.id) " +
+            "FROM Item i WHERE i.id = ?1")
+    Optional<ItemView> findCachedById(long itemId);
+
+    @IndexedBy("items(owner_id)")
+    @EntityGraph(attributePaths = "owner")
     List<Item> findAllByOwnerId(long userId);
 
-    @Query("SELECT i FROM Item i " +
-            "WHERE (UPPER(i.name) LIKE UPPER(CONCAT('%', ?1, '%')) " +
-            "OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%'))) " +
-            "AND i.available = true")
-    List<Item> search(String text);
+    @IndexedBy("items(owner_id)")
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderById(long userId, long afterId, Limit limit);
+
+    @IndexedBy("items(id)")
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllByIdIn(Collection<Long> ids);
+
+    @IndexedBy("items(id)")
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemVersionView(o.id, i.version, o.version, " +
+            "i.nextBooking.start) " +
+            "FROM Item i JOIN i.owner o " +
+            "WHERE i.id = ?1")
+    Optional<ItemVersionView> findVersionById(long itemId);
+
+    @IndexedBy({"items(id)", "bookings(item_id, status, start_date)"})
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDetailsView(i.id, i.name, i.description, i.available, " +
+            "o.id, o.name, " +
+            "lb.id, lb.start, lb.end, lb.status, lb.booker.id, " +
+            "nb.id, nb.start, nb.end, nb.status, nb.booker.id, i.commentCount, i.requestId) " +
+            "FROM Item i JOIN i.owner o " +
+            "LEFT JOIN Booking lb ON o.id = ?2 AND lb.id = (SELECT b.id FROM Booking b " +
+            "WHERE b.item.id = i.id AND b.start <= ?3 AND b.status = ?4 ORDER BY b.end DESC, b.id DESC LIMIT 1) " +
+            "LEFT JOIN Booking nb ON o.id = ?2 AND nb.id = (SELECT b.id FROM Booking b " +
+            "WHERE b.item.id = i.id AND b.start > ?3 AND b.status = ?4 ORDER BY b.end ASC, b.id ASC LIMIT 1) " +
+            "WHERE i.id = ?1")
+    Optional<ItemDetailsView> findDetailsById(long itemId, long userId, LocalDateTime thisMoment,
+                                              BookingStatus approved);
+
+    /**
+     * Вещи, добавленные в ответ на запросы, для всей страницы запросов одним обращением к базе.
+     */
+    @IndexedBy("items(request_id)")
+    @Query("SELECT new ru.practicum.shareit.request.dto.ItemAnswerDto(i.id, i.name, i.description, i.available, " +
+            "i.requestId, i.owner.id) " +
+            "FROM Item i WHERE i.requestId IN ?1 " +
+            "ORDER BY i.id")
+    List<ItemAnswerDto> findAnswersByRequestIdIn(Collection<Long> requestIds);
+
+    /**
+     * Делает бронирование последним бронированием вещи, если оно заканчивается позже текущего последнего.
+     * Условие проверяется в самом UPDATE, поэтому параллельные подтверждения не затирают друг друга.
+     */
+    @IndexedBy("items(id)")
+    @Modifying
+    @Query("UPDATE Item i SET i.version = i.version + 1, i.lastBooking.id = ?2, i.lastBooking.bookerId = ?3, " +
+            "i.lastBooking.start = ?4, i.lastBooking.end = ?5 " +
+            "WHERE i.id = ?1 AND (i.lastBooking.end IS NULL OR i.lastBooking.end < ?5 " +
+            "OR i.lastBooking.end = ?5 AND i.lastBooking.id < ?2)")
+    int offerLastBooking(long itemId, long bookingId, long bookerId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Делает бронирование следующим бронированием вещи, если оно заканчивается раньше текущего следующего.
+     */
+    @IndexedBy("items(id)")
+    @Modifying
+    @Query("UPDATE Item i SET i.version = i.version + 1, i.nextBooking.id = ?2, i.nextBooking.bookerId = ?3, " +
+            "i.nextBooking.start = ?4, i.nextBooking.end = ?5 " +
+            "WHERE i.id = ?1 AND (i.nextBooking.end IS NULL OR i.nextBooking.end > ?5 " +
+            "OR i.nextBooking.end = ?5 AND i.nextBooking.id > ?2)")
+    int offerNextBooking(long itemId, long bookingId, long bookerId, LocalDateTime start, LocalDateTime end);
+
+    @IndexedBy("items(id)")
+    @Modifying
+    @Query("UPDATE Item i SET i.version = i.version + 1, i.commentCount = i.commentCount + 1 WHERE i.id = ?1")
+    int incrementCommentCount(long itemId);
+
+    /**
+     * Пересчитывает число отзывов у всех вещей, например после загрузки отзывов в обход приложения.
+     */
+    @IndexedBy({"items(id)", "comments(item_id)"})
+    @Modifying
+    @Query(nativeQuery = true,
+            value = "UPDATE items i SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id)")
+    int refreshAllCommentCounts();
+
+    @IndexedBy("items(next_booking_start)")
+    @Query("SELECT DISTINCT i.owner.id FROM Item i WHERE i.nextBooking.start <= ?1")
+    List<Long> findOwnerIdsWithStaleBookingSummary(LocalDateTime now);
+
+    /**
+     * Сдвигает сводку у вещей, следующее бронирование которых уже началось.
+     */
+    @IndexedBy({"items(next_booking_start)", "bookings(item_id, status, start_date)"})
+    @Modifying
+    @Query(nativeQuery = true, value = REFRESH_BOOKING_SUMMARY + "WHERE i.next_booking_start <= :now")
+    int rollForwardBookingSummaries(LocalDateTime now);
+
+    /**
+     * Пересчитывает сводку у всех вещей, например после загрузки бронирований в обход приложения.
+     */
+    @IndexedBy({"items(id)", "bookings(item_id, status, start_date)"})
+    @Modifying
+    @Query(nativeQuery = true, value = REFRESH_BOOKING_SUMMARY)
+    int refreshAllBookingSummaries(LocalDateTime now);
+
+    /**
+     * Пересчитывает сводку тех вещей из :itemIds, последнее или следующее бронирование которых входит
+     * в :bookingIds, например после отклонения или переноса этих бронирований в архив.
+     */
+    @IndexedBy({"items(id)", "bookings(item_id, status, start_date)"})
+    @Modifying
+    @Query(nativeQuery = true, value = REFRESH_BOOKING_SUMMARY + "WHERE i.id IN (:itemIds) " +
+            "AND (i.last_booking_id IN (:bookingIds) OR i.next_booking_id IN (:bookingIds))")
+    int refreshBookingSummariesReferencing(Collection<Long> itemIds, Collection<Long> bookingIds, LocalDateTime now);
+
+    @IndexedBy("items(owner_id)")
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemBookingCountsView(i.id, i.name, " +
+            "i.bookingCounts.total, i.bookingCounts.waiting, i.bookingCounts.rejected, i.bookingCounts.future, " +
+            "i.bookingCounts.current, i.bookingCounts.bookedSeconds, i.bookingCounts.bookedFrom, " +
+            "i.bookingCounts.bookedUntil) " +
+            "FROM Item i WHERE i.owner.id = ?1 " +
+            "ORDER BY i.id")
+    List<ItemBookingCountsView> findBookingCountsByOwnerId(long ownerId);
+
+    /**
+     * Учитывает новые бронирования вещи: все они ожидают подтверждения и ещё не начались.
+     */
+    @IndexedBy("items(id)")
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE items SET bookings_total = bookings_total + :count, " +
+            "bookings_waiting = bookings_waiting + :count, bookings_future = bookings_future + :count, " +
+            "bookings_next_transition = CASE WHEN bookings_next_transition IS NULL " +
+            "OR bookings_next_transition > :start THEN :start ELSE bookings_next_transition END " +
+            "WHERE id = :itemId")
+    int countNewBookings(long itemId, int count, LocalDateTime start);
+
+    @IndexedBy("items(id)")
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE items SET bookings_waiting = bookings_waiting - 1, " +
+            "booked_seconds = booked_seconds + :seconds, " +
+            "booked_from = CASE WHEN booked_from IS NULL OR booked_from > :start THEN :start ELSE booked_from END, " +
+            "booked_until = CASE WHEN booked_until IS NULL OR booked_until < :end THEN :end ELSE booked_until END " +
+            "WHERE id = :itemId")
+    int countApproval(long itemId, long seconds, LocalDateTime start, LocalDateTime end);
+
+    @IndexedBy("items(id)")
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE items SET bookings_waiting = bookings_waiting - 1, " +
+            "bookings_rejected = bookings_rejected + 1 WHERE id = :itemId")
+    int countRejection(long itemId);
+
+    /**
+     * Блокирует не больше limit вещей с id больше afterId, у которых началось или закончилось бронирование.
+     * Пересчёт идёт следующим запросом, поэтому он видит бронирования, добавленные до получения блокировки.
+     */
+    @IndexedBy("items(bookings_next_transition)")
+    @Query(nativeQuery = true, value = "SELECT id FROM items " +
+            "WHERE bookings_next_transition <= :now AND id > :afterId ORDER BY id LIMIT :limit FOR UPDATE")
+    List<Long> lockIdsWithStaleBookingCounts(LocalDateTime now, long afterId, int limit);
+
+    @IndexedBy({"items(id)", "bookings(item_id, start_date)"})
+    @Modifying
+    @Query(nativeQuery = true, value = REFRESH_BOOKING_COUNTS + "WHERE i.id IN (:itemIds)")
+    int refreshBookingCounts(Collection<Long> itemIds, LocalDateTime now);
+
+    /**
+     * Пересчитывает счётчики бронирований у всех вещей, например после загрузки бронирований в обход приложения.
+     * Общее число, ожидающие, отклонённые и подтверждённое время считаются и по архиву.
+     */
+    @IndexedBy({"items(id)", "bookings(item_id, status, start_date)", "bookings_archive(item_id, status, start_date)"})
+    @Modifying
+    @Query(nativeQuery = true, value = REFRESH_BOOKING_TOTALS)
+    int refreshAllBookingTotals();
 
-}
\ No newline at end of file
+    @IndexedBy({"items(id)", "bookings(item_id, start_date)"})
+    @Modifying
+    @Query(nativeQuery = true, value = REFRESH_BOOKING_COUNTS)
+    int refreshAllBookingCounts(LocalDateTime now);
+}
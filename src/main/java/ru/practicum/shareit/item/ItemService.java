@@ -2,21 +2,44 @@ package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.comment.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.utils.BatchRowResult;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.ResultStream;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     ItemDtoResponse getItemById(long itemId, long userId);
 
+    String getItemTag(long itemId, long userId);
+
+    String getItemsTag(long userId);
+
     List<ItemDtoResponse> getItemsByOwner(long userId);
 
-    List<ItemDtoResponse> getItemBySearch(String text);
+    ResultStream<ItemDtoResponse> streamItemsByOwner(long userId);
+
+    List<ItemDtoResponse> getItemBySearch(String text, int from, int size);
 
     ItemDtoResponse saveNewItem(ItemDtoRequest itemDtoRequest, long userId);
 
+    List<BatchRowResult<ItemDtoResponse>> saveNewItems(List<ItemDtoRequest> itemDtoRequests, long userId);
+
     ItemDtoResponse updateItem(long itemId, ItemDtoRequest itemDtoRequest, long userId);
 
     CommentDtoResponse saveNewComment(long itemId, CommentDtoRequest commentDtoRequest, long userId);
+
+    List<CommentDtoResponse> getComments(long itemId, Cursor cursor, int size);
+
+    ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Пересчитывает у всех вещей сводку и счётчики бронирований и число отзывов, например после загрузки данных
+     * в обход приложения.
+     */
+    void refreshAllSummaries(LocalDateTime now);
 }
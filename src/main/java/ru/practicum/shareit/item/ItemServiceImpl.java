@@ -2,63 +2,161 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.comment.*;
 import ru.practicum.shareit.item.comment.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.comment.dto.ItemCommentView;
 import ru.practicum.shareit.item.comment.mapper.CommentMapper;
+import ru.practicum.shareit.item.dto.AvailabilityRange;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.dto.ItemVersionView;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.search.ItemChangedEvent;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UserRevisionView;
+import ru.practicum.shareit.user.dto.UserDtoShort;
+import ru.practicum.shareit.user.dto.UserView;
+import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.utils.BatchRowResult;
+import ru.practicum.shareit.utils.BatchValidator;
+import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.Cursor;
+import ru.practicum.shareit.utils.EntityTag;
+import ru.practicum.shareit.utils.ResultStream;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
-import static org.springframework.data.domain.Sort.Direction.ASC;
-import static org.springframework.data.domain.Sort.Direction.DESC;
 
 @Slf4j
 @Transactional
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int STREAM_PAGE_SIZE = 100;
+    private static final int RECENT_COMMENTS = 10;
+    private static final Duration DEFAULT_AVAILABILITY_WINDOW = Duration.ofDays(30);
+    private static final Duration MAX_AVAILABILITY_WINDOW = Duration.ofDays(366);
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final BatchValidator batchValidator;
 
     @Override
     public ItemDtoResponse saveNewItem(ItemDtoRequest itemDtoRequest, long userId) {
         log.info("Создание новой вещи {}", itemDtoRequest.getName());
-        User owner = getUser(userId);
+        UserView owner = getUser(userId);
+        if (itemDtoRequest.getRequestId() != null && !itemRequestRepository.existsById(itemDtoRequest.getRequestId())) {
+            throw new EntityNotFoundException(String.format("Объект класса %s не найден", ItemRequest.class));
+        }
         Item item = ItemMapper.toItem(itemDtoRequest);
-        item.setOwner(owner);
-        return ItemMapper.toItemDtoResponse(itemRepository.save(item));
+        item.setOwner(userRepository.getReferenceById(owner.id()));
+        item = itemRepository.save(item);
+        userRepository.incrementItemsRevision(owner.id());
+        eventPublisher.publishEvent(ItemChangedEvent.of(item));
+        return ItemMapper.toItemDtoResponse(item, UserMapper.toUserDtoShort(owner));
     }
 
+    /**
+     * Создаёт вещи владельца одной транзакцией. Строки с ошибками пропускаются, остальные вставляются пакетами JDBC.
+     */
+    @Override
+    public List<BatchRowResult<ItemDtoResponse>> saveNewItems(List<ItemDtoRequest> itemDtoRequests, long userId) {
+        batchValidator.checkSize(itemDtoRequests);
+        log.info("Пакетное создание {} вещей", itemDtoRequests.size());
+        UserView owner = getUser(userId);
+        User ownerReference = userRepository.getReferenceById(owner.id());
+        Set<Long> requestIds = itemDtoRequests.stream().filter(Objects::nonNull).map(ItemDtoRequest::getRequestId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> existingRequestIds = requestIds.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(itemRequestRepository.findIdsIn(requestIds));
+        List<BatchRowResult<ItemDtoResponse>> results =
+                new ArrayList<>(Collections.nCopies(itemDtoRequests.size(), null));
+        List<Integer> indexes = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < itemDtoRequests.size(); i++) {
+            ItemDtoRequest itemDtoRequest = itemDtoRequests.get(i);
+            Optional<String> error = batchValidator.validate(itemDtoRequest, Create.class);
+            if (error.isPresent()) {
+                results.set(i, BatchRowResult.failed(i, error.get()));
+            } else if (itemDtoRequest.getRequestId() != null
+                    && !existingRequestIds.contains(itemDtoRequest.getRequestId())) {
+                results.set(i, BatchRowResult.failed(i,
+                        String.format("Объект класса %s не найден", ItemRequest.class)));
+            } else {
+                Item item = ItemMapper.toItem(itemDtoRequest);
+                item.setOwner(ownerReference);
+                indexes.add(i);
+                items.add(item);
+            }
+        }
+        itemRepository.saveAll(items);
+        if (!items.isEmpty()) {
+            userRepository.incrementItemsRevision(owner.id());
+        }
+        UserDtoShort ownerDto = UserMapper.toUserDtoShort(owner);
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            eventPublisher.publishEvent(ItemChangedEvent.of(item));
+            results.set(indexes.get(i), BatchRowResult.created(indexes.get(i),
+                    ItemMapper.toItemDtoResponse(item, ownerDto)));
+        }
+        return results;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#itemId")
     @Override
     public ItemDtoResponse updateItem(long itemId, ItemDtoRequest itemDtoRequest, long userId) {
         log.info("Обновление вещи {} с идентификатором {}", itemDtoRequest.getName(), itemId);
         getUser(userId);
-        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+        Item item = itemRepository.findWithOwnerById(itemId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
         String name = itemDtoRequest.getName();
         String description = itemDtoRequest.getDescription();
@@ -77,6 +175,8 @@ public class ItemServiceImpl implements ItemService {
             throw new ForbiddenException(String.format("Пользователь с id %s не является собственником %s",
                     userId, name));
         }
+        userRepository.incrementItemsRevision(userId);
+        eventPublisher.publishEvent(ItemChangedEvent.of(item));
         return ItemMapper.toItemDtoResponse(item);
     }
 
@@ -84,8 +184,44 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public ItemDtoResponse getItemById(long itemId, long userId) {
         log.info("Получение вещи по идентификатору {}", itemId);
-        return itemRepository.findById(itemId).map(item -> addBookingsAndComments(item, userId)).orElseThrow(() ->
+        ItemDtoResponse itemDtoResponse = itemRepository
+                .findDetailsById(itemId, userId, LocalDateTime.now(), BookingStatus.APPROVED)
+                .map(ItemMapper::toItemDtoResponse)
+                .orElseThrow(() ->
+                        new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
+        itemDtoResponse.setComments(commentRepository.findDtoByItemId(itemId, Cursor.FIRST.position(),
+                Cursor.FIRST.id(), Limit.of(RECENT_COMMENTS)));
+        return itemDtoResponse;
+    }
+
+    /**
+     * Последнее и следующее бронирования в ответе зависят от текущего момента. Версия вещи меняется,
+     * когда планировщик сдвигает её сводку, поэтому ETag может отставать от ответа не дольше интервала сдвига.
+     * Переименование авторов отзывов ETag не меняет.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public String getItemTag(long itemId, long userId) {
+        ItemVersionView version = itemRepository.findVersionById(itemId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
+        // Бронирования вещи видит только владелец, поэтому его представление отличается от остальных.
+        // Последнее и следующее бронирования считаются на текущий момент: когда следующее начинается, ответ
+        // меняется раньше, чем планировщик сдвинет сводку и версию вещи.
+        String view = "guest";
+        if (version.ownerId() == userId) {
+            LocalDateTime nextStart = version.nextBookingStart();
+            view = nextStart != null && !nextStart.isAfter(LocalDateTime.now()) ? "owner-started" : "owner";
+        }
+        return EntityTag.of("item", itemId, version.itemVersion(), version.ownerVersion(), view);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public String getItemsTag(long userId) {
+        // Вещи с начавшимся следующим бронированием отдаются с пересчитанной сводкой ещё до прохода планировщика
+        UserRevisionView revision = userRepository.findRevisionById(userId, LocalDateTime.now()).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
+        return EntityTag.of("items", userId, revision.itemsRevision(), revision.version(), revision.startedItems());
     }
 
     @Transactional(readOnly = true)
@@ -99,84 +235,166 @@ public class ItemServiceImpl implements ItemService {
 
     @Transactional(readOnly = true)
     @Override
-    public List<ItemDtoResponse> getItemBySearch(String text) {
+    public ResultStream<ItemDtoResponse> streamItemsByOwner(long userId) {
+        log.info("Потоковое получение вещей по владельцу {}", userId);
+        getUser(userId);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        // Бронирования и отзывы догружаются к каждой странице вещей в её же транзакции
+        return ResultStream.ofPages(transaction, STREAM_PAGE_SIZE, last -> addBookingsAndCommentsForList(
+                itemRepository.findAllByOwnerIdAndIdGreaterThanOrderById(userId, last == null ? 0 : last.getId(),
+                        Limit.of(STREAM_PAGE_SIZE))));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemDtoResponse> getItemBySearch(String text, int from, int size) {
         log.info("Получение вещи по поиску {}", text);
-        if (text.isEmpty()) {
+        if (from < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format("Некорректные параметры страницы: from=%d, size=%d",
+                    from, size));
+        }
+        List<Long> ids = itemSearchIndex.search(text, from, size);
+        if (ids.isEmpty()) {
             return Collections.emptyList();
         }
-        return itemRepository.search(text).stream().map(ItemMapper::toItemDtoResponse).collect(toList());
+        Map<Long, Item> items = itemRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(ItemMapper::toItemDtoResponse)
+                .collect(toList());
     }
 
     @Override
     public CommentDtoResponse saveNewComment(long itemId, CommentDtoRequest commentDtoRequest, long userId) {
-        User user = getUser(userId);
-        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+        UserView user = getUser(userId);
+        ItemView item = itemRepository.findCachedById(itemId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
-        if (!bookingRepository.existsByBookerIdAndItemIdAndEndBefore(user.getId(), item.getId(), LocalDateTime.now())) {
+        LocalDateTime now = LocalDateTime.now();
+        // Флаг архива читается из базы только если в рабочей таблице подходящего бронирования нет
+        if (!bookingRepository.existsByBookerIdAndItemIdAndEndBefore(user.id(), item.id(), now)
+                && !(userRepository.findBookingsArchivedById(user.id()).orElse(false)
+                && archivedBookingRepository.existsByBookerIdAndItemIdAndEndBefore(user.id(), item.id(), now))) {
             throw new ValidationException("Пользователь не пользовался вещью");
         }
-        Comment comment = commentRepository.save(CommentMapper.toComment(commentDtoRequest, item, user));
-        return CommentMapper.toCommentDtoResponse(comment);
+        Comment comment = commentRepository.save(CommentMapper.toComment(commentDtoRequest,
+                itemRepository.getReferenceById(item.id()), userRepository.getReferenceById(user.id())));
+        itemRepository.incrementCommentCount(item.id());
+        userRepository.incrementItemsRevision(item.ownerId());
+        return CommentMapper.toCommentDtoResponse(comment, user.name());
     }
 
-    private ItemDtoResponse addBookingsAndComments(Item item, long userId) {
-        ItemDtoResponse itemDtoResponse = ItemMapper.toItemDtoResponse(item);
-
-        LocalDateTime thisMoment = LocalDateTime.now();
-        if (itemDtoResponse.getOwner().getId() == userId) {
-            itemDtoResponse.setLastBooking(bookingRepository
-                    .findFirstByItemIdAndStartLessThanEqualAndStatus(itemDtoResponse.getId(), thisMoment,
-                            BookingStatus.APPROVED, Sort.by(DESC, "end"))
-                    .map(BookingMapper::toBookingDtoShort)
-                    .orElse(null));
-
-            itemDtoResponse.setNextBooking(bookingRepository
-                    .findFirstByItemIdAndStartAfterAndStatus(itemDtoResponse.getId(), thisMoment,
-                            BookingStatus.APPROVED, Sort.by(ASC, "end"))
-                    .map(BookingMapper::toBookingDtoShort)
-                    .orElse(null));
+    @Transactional(readOnly = true)
+    @Override
+    public List<CommentDtoResponse> getComments(long itemId, Cursor cursor, int size) {
+        log.info("Получение отзывов вещи {}", itemId);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
         }
+        itemRepository.findCachedById(itemId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
+        return commentRepository.findDtoByItemId(itemId, cursor.position(), cursor.id(), Limit.of(size));
+    }
 
-        itemDtoResponse.setComments(commentRepository.findAllByItemId(itemDtoResponse.getId())
-                .stream()
-                .map(CommentMapper::toCommentDtoResponse)
-                .collect(toList()));
+    /**
+     * Занятость считается по зафиксированным подтверждениям из индекса интервалов, расписание читается из основной
+     * базы и сбрасывается подтверждением бронирования. Вещь и расписание после первого обращения берутся из памяти,
+     * к базе запрос не обращается. Прошлое не бронируется, поэтому окно начинается не раньше текущего момента.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plus(DEFAULT_AVAILABILITY_WINDOW) : to;
+        if (!end.isAfter(start) || Duration.between(start, end).compareTo(MAX_AVAILABILITY_WINDOW) > 0) {
+            throw new ValidationException(String.format(
+                    "Окно должно заканчиваться позже начала и быть не длиннее %d дней",
+                    MAX_AVAILABILITY_WINDOW.toDays()));
+        }
+        itemRepository.findCachedById(itemId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
+        List<AvailabilityRange> busy = new ArrayList<>();
+        List<AvailabilityRange> free = new ArrayList<>();
+        LocalDateTime freeFrom = start;
+        for (BookingInterval interval : bookingIntervalIndex.findOverlapping(itemId, start, end)) {
+            LocalDateTime busyFrom = interval.start().isBefore(start) ? start : interval.start();
+            LocalDateTime busyTo = interval.end().isAfter(end) ? end : interval.end();
+            if (busyFrom.isAfter(freeFrom)) {
+                free.add(new AvailabilityRange(freeFrom, busyFrom));
+                busy.add(new AvailabilityRange(busyFrom, busyTo));
+            } else if (busy.isEmpty()) {
+                busy.add(new AvailabilityRange(busyFrom, busyTo));
+            } else {
+                // Бронирование начинается сразу после предыдущего: занятый промежуток продлевается
+                busy.set(busy.size() - 1, new AvailabilityRange(busy.get(busy.size() - 1).start(), busyTo));
+            }
+            freeFrom = busyTo;
+        }
+        if (end.isAfter(freeFrom)) {
+            free.add(new AvailabilityRange(freeFrom, end));
+        }
+        return new ItemAvailabilityDto(itemId, start, end, busy, free);
+    }
 
-        return itemDtoResponse;
+    @Override
+    public void refreshAllSummaries(LocalDateTime now) {
+        int items = itemRepository.refreshAllBookingSummaries(now);
+        itemRepository.refreshAllBookingTotals();
+        itemRepository.refreshAllBookingCounts(now);
+        itemRepository.refreshAllCommentCounts();
+        log.info("Сводка бронирований, счётчики бронирований и число отзывов пересчитаны у {} вещей", items);
     }
 
+    /**
+     * Последнее и следующее бронирования берутся из сводки в строке вещи. Бронирования читаются из базы только
+     * для вещей, у которых следующее бронирование уже началось, а планировщик ещё не сдвинул сводку.
+     */
     private List<ItemDtoResponse> addBookingsAndCommentsForList(List<Item> items) {
         LocalDateTime thisMoment = LocalDateTime.now();
+        List<Item> staleItems = items.stream()
+                .filter(item -> isBookingSummaryStale(item, thisMoment))
+                .collect(toList());
 
-        Map<Item, Booking> itemsWithLastBookings = bookingRepository
-                .findByItemInAndStartLessThanEqualAndStatus(items, thisMoment,
-                        BookingStatus.APPROVED, Sort.by(DESC, "end"))
-                .stream()
-                .collect(Collectors.toMap(Booking::getItem, Function.identity(), (o1, o2) -> o1));
-
-        Map<Item, Booking> itemsWithNextBookings = bookingRepository
-                .findByItemInAndStartAfterAndStatus(items, thisMoment,
-                        BookingStatus.APPROVED, Sort.by(ASC, "end"))
-                .stream()
-                .collect(Collectors.toMap(Booking::getItem, Function.identity(), (o1, o2) -> o1));
+        Map<Long, Booking> itemsWithLastBookings = Collections.emptyMap();
+        Map<Long, Booking> itemsWithNextBookings = Collections.emptyMap();
+        if (!staleItems.isEmpty()) {
+            List<Long> staleIds = staleItems.stream().map(Item::getId).collect(toList());
+            itemsWithLastBookings = bookingRepository.findLastApprovedByItemIdIn(staleIds, thisMoment).stream()
+                    .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity()));
+            itemsWithNextBookings = bookingRepository.findNextApprovedByItemIdIn(staleIds, thisMoment).stream()
+                    .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity()));
+        }
 
-        Map<Item, List<Comment>> itemsWithComments = commentRepository
-                .findByItemIn(items, Sort.by(DESC, "created"))
+        Map<Long, List<ItemCommentView>> itemsWithComments = commentRepository
+                .findRecentByItemIdIn(items.stream().map(Item::getId).collect(toList()), RECENT_COMMENTS)
                 .stream()
-                .collect(groupingBy(Comment::getItem, toList()));
+                .collect(groupingBy(ItemCommentView::getItemId, toList()));
 
         List<ItemDtoResponse> itemDtoResponses = new ArrayList<>();
         for (Item item : items) {
             ItemDtoResponse itemDtoResponse = ItemMapper.toItemDtoResponse(item);
-            Booking lastBooking = itemsWithLastBookings.get(item);
-            if (!itemsWithLastBookings.isEmpty() && lastBooking != null) {
-                itemDtoResponse.setLastBooking(BookingMapper.toBookingDtoShort(lastBooking));
+            if (isBookingSummaryStale(item, thisMoment)) {
+                Booking lastBooking = itemsWithLastBookings.get(item.getId());
+                if (lastBooking != null) {
+                    itemDtoResponse.setLastBooking(BookingMapper.toBookingDtoShort(lastBooking));
+                }
+                Booking nextBooking = itemsWithNextBookings.get(item.getId());
+                if (nextBooking != null) {
+                    itemDtoResponse.setNextBooking(BookingMapper.toBookingDtoShort(nextBooking));
+                }
+            } else {
+                if (item.getLastBooking() != null) {
+                    itemDtoResponse.setLastBooking(BookingMapper.toBookingDtoShort(item.getLastBooking()));
+                }
+                if (item.getNextBooking() != null) {
+                    itemDtoResponse.setNextBooking(BookingMapper.toBookingDtoShort(item.getNextBooking()));
+                }
             }
-            Booking nextBooking = itemsWithNextBookings.get(item);
-            if (!itemsWithNextBookings.isEmpty() && nextBooking != null) {
-                itemDtoResponse.setNextBooking(BookingMapper.toBookingDtoShort(nextBooking));
-            }
-            List<CommentDtoResponse> commentDtoResponses = itemsWithComments.getOrDefault(item, Collections.emptyList())
+            List<CommentDtoResponse> commentDtoResponses = itemsWithComments
+                    .getOrDefault(item.getId(), Collections.emptyList())
                     .stream()
                     .map(CommentMapper::toCommentDtoResponse)
                     .collect(toList());
@@ -187,8 +405,12 @@ public class ItemServiceImpl implements ItemService {
         return itemDtoResponses;
     }
 
-    private User getUser(long userId) {
-        return userRepository.findById(userId).orElseThrow(() ->
+    private static boolean isBookingSummaryStale(Item item, LocalDateTime thisMoment) {
+        return item.getNextBooking() != null && !item.getNextBooking().getStart().isAfter(thisMoment);
+    }
+
+    private UserView getUser(long userId) {
+        return userRepository.findCachedById(userId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
     }
 }
@@ -1,13 +1,35 @@
 package ru.practicum.shareit.item.comment;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import ru.practicum.shareit.item.Item;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.comment.dto.ItemCommentView;
+import ru.practicum.shareit.utils.IndexedBy;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
-    List<Comment> findAllByItemId(long itemId);
+    @IndexedBy("comments(item_id, created, id)")
+    @Query("SELECT new ru.practicum.shareit.item.comment.dto.CommentDtoResponse(c.id, c.text, a.name, c.created) " +
+            "FROM Comment c JOIN c.author a " +
+            "WHERE c.item.id = ?1 " +
+            "AND (c.created < ?2 OR (c.created = ?2 AND c.id < ?3)) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<CommentDtoResponse> findDtoByItemId(long itemId, LocalDateTime created, long id, Limit limit);
 
-    List<Comment> findByItemIn(List<Item> allByOwnerId, Sort created);
+    /**
+     * Не больше limit последних отзывов каждой вещи, лишние отзывы отбрасываются в базе.
+     */
+    @IndexedBy({"comments(item_id, created, id)", "users(id)"})
+    @Query(nativeQuery = true, value = "SELECT t.item_id AS itemId, t.id AS id, t.text AS text, " +
+            "u.name AS authorName, t.created AS created " +
+            "FROM (SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn " +
+            "FROM comments c WHERE c.item_id IN (:itemIds)) t " +
+            "JOIN users u ON u.id = t.author_id " +
+            "WHERE t.rn <= :limit " +
+            "ORDER BY t.item_id, t.rn")
+    List<ItemCommentView> findRecentByItemIdIn(Collection<Long> itemIds, int limit);
 }
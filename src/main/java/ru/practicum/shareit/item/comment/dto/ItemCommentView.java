@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.comment.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отзыв вместе с идентификатором вещи, к которой он относится, для выборки отзывов сразу по нескольким вещам.
+ */
+public interface ItemCommentView {
+    long getItemId();
+
+    long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
@@ -5,6 +5,7 @@ import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.comment.dto.ItemCommentView;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -18,6 +19,20 @@ public class CommentMapper {
                 comment.getCreated());
     }
 
+    public CommentDtoResponse toCommentDtoResponse(Comment comment, String authorName) {
+        return new CommentDtoResponse(comment.getId(),
+                comment.getText(),
+                authorName,
+                comment.getCreated());
+    }
+
+    public CommentDtoResponse toCommentDtoResponse(ItemCommentView view) {
+        return new CommentDtoResponse(view.getId(),
+                view.getText(),
+                view.getAuthorName(),
+                view.getCreated());
+    }
+
     public Comment toComment(CommentDtoRequest commentDtoRequest, Item item, User author) {
         Comment comment = new Comment();
         comment.setItem(item);
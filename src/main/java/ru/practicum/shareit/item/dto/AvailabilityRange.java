@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Промежуток [start, end).
+ */
+public record AvailabilityRange(LocalDateTime start, LocalDateTime end) {
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Занятость вещи в окне [from, to): подряд идущие подтверждённые бронирования склеены в один занятый
+ * промежуток, свободные промежутки — всё остальное окно.
+ */
+@Data
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+    private long itemId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<AvailabilityRange> busy;
+    private List<AvailabilityRange> free;
+}
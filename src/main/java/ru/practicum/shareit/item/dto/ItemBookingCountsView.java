@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Счётчики бронирований вещи из её строки.
+ */
+public record ItemBookingCountsView(long id, String name, long total, long waiting, long rejected, long future,
+                                    long current, long bookedSeconds, LocalDateTime bookedFrom,
+                                    LocalDateTime bookedUntil) {
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public record ItemDetailsView(long id, String name, String description, Boolean available,
+                              long ownerId, String ownerName,
+                              Long lastBookingId, LocalDateTime lastBookingStart, LocalDateTime lastBookingEnd,
+                              BookingStatus lastBookingStatus, Long lastBookingBookerId,
+                              Long nextBookingId, LocalDateTime nextBookingStart, LocalDateTime nextBookingEnd,
+                              BookingStatus nextBookingStatus, Long nextBookingBookerId,
+                              long commentCount, Long requestId) {
+}
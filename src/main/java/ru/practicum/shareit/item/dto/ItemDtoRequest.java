@@ -20,4 +20,5 @@ public class ItemDtoRequest {
     private String description;
     @NotNull(groups = {Create.class})
     private Boolean available;
+    private Long requestId;
 }
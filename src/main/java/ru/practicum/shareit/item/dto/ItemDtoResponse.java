@@ -18,7 +18,9 @@ public class ItemDtoResponse {
     private BookingDtoShort lastBooking;
     private BookingDtoShort nextBooking;
     private List<CommentDtoResponse> comments;
+    private long commentCount;
     private UserDtoShort owner;
+    private Long requestId;
 
     public ItemDtoResponse(long id, String name, String description, Boolean available, UserDtoShort owner) {
         this.id = id;
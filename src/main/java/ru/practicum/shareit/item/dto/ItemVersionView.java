@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Версии строк, из которых собирается ответ GET /items/{id}, и начало следующего бронирования вещи.
+ */
+public record ItemVersionView(long ownerId, long itemVersion, long ownerVersion, LocalDateTime nextBookingStart) {
+}
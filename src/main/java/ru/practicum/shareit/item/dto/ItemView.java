@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Поля вещи, которые хранятся в кэше. Меняются только при обновлении вещи, которое удаляет её из кэша.
+ * Сводки и счётчики бронирований и отзывов сюда не входят.
+ */
+public record ItemView(long id, String name, boolean available, long ownerId) {
+}
@@ -1,22 +1,64 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.dto.ItemDetailsView;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.user.dto.UserDtoShort;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 @UtilityClass
 public class ItemMapper {
     public ItemDtoResponse toItemDtoResponse(Item item) {
-        return new ItemDtoResponse(
+        return toItemDtoResponse(item, UserMapper.toUserDtoShort(item.getOwner()));
+    }
+
+    public ItemDtoResponse toItemDtoResponse(Item item, UserDtoShort owner) {
+        ItemDtoResponse itemDtoResponse = new ItemDtoResponse(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
-                UserMapper.toUserDtoShort(item.getOwner())
+                owner
         );
+        itemDtoResponse.setCommentCount(item.getCommentCount());
+        itemDtoResponse.setRequestId(item.getRequestId());
+        return itemDtoResponse;
+    }
+
+    public ItemDtoResponse toItemDtoResponse(ItemDetailsView view) {
+        ItemDtoResponse itemDtoResponse = new ItemDtoResponse(
+                view.id(),
+                view.name(),
+                view.description(),
+                view.available(),
+                new UserDtoShort(view.ownerId(), view.ownerName())
+        );
+        itemDtoResponse.setCommentCount(view.commentCount());
+        itemDtoResponse.setRequestId(view.requestId());
+        if (view.lastBookingId() != null) {
+            itemDtoResponse.setLastBooking(new BookingDtoShort(
+                    view.lastBookingId(),
+                    view.lastBookingStart(),
+                    view.lastBookingEnd(),
+                    view.lastBookingStatus(),
+                    view.lastBookingBookerId()
+            ));
+        }
+        if (view.nextBookingId() != null) {
+            itemDtoResponse.setNextBooking(new BookingDtoShort(
+                    view.nextBookingId(),
+                    view.nextBookingStart(),
+                    view.nextBookingEnd(),
+                    view.nextBookingStatus(),
+                    view.nextBookingBookerId()
+            ));
+        }
+        return itemDtoResponse;
     }
 
     public ItemDtoShort toItemDtoShort(Item item) {
@@ -26,11 +68,29 @@ public class ItemMapper {
         );
     }
 
+    public ItemDtoShort toItemDtoShort(ItemView item) {
+        return new ItemDtoShort(
+                item.id(),
+                item.name()
+        );
+    }
+
+    public ItemView toItemView(Item item) {
+        return new ItemView(
+                item.getId(),
+                item.getName(),
+                Boolean.TRUE.equals(item.getAvailable()),
+                item.getOwner().getId()
+        );
+    }
+
     public Item toItem(ItemDtoRequest itemDtoRequest) {
-        return new Item(
+        Item item = new Item(
                 itemDtoRequest.getName(),
                 itemDtoRequest.getDescription(),
                 itemDtoRequest.getAvailable()
         );
+        item.setRequestId(itemDtoRequest.getRequestId());
+        return item;
     }
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.Item;
+
+public record ItemChangedEvent(long id, String name, String description, boolean available) {
+    public static ItemChangedEvent of(Item item) {
+        return new ItemChangedEvent(item.getId(), item.getName(), item.getDescription(),
+                Boolean.TRUE.equals(item.getAvailable()));
+    }
+}
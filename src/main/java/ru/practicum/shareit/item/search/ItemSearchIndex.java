@@ -0,0 +1,214 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Триграммный индекс вещей для поиска по названию и описанию. Семантика та же, что у прежнего запроса
+ * с LIKE: текст запроса целиком, без учёта регистра, должен входить подстрокой в название или описание.
+ * Каждое поле раскладывается на триграммы (подстроки из трёх символов), поле дополняется в конце двумя
+ * символами PAD, чтобы и его последние символы начинали какую-нибудь триграмму. Запрос из трёх и более
+ * символов сужает выборку пересечением списков своих триграмм, запрос короче — списками триграмм,
+ * которые с него начинаются. Найденные вещи, как и строки после индекса pg_trgm, перепроверяются по тексту.
+ * Совпадение в названии весит больше, чем в описании, совпадение целыми словами — больше, чем части слова.
+ * <p>
+ * Индекс свой у каждого экземпляра приложения. Изменения, сделанные через этот экземпляр, попадают в него сразу,
+ * изменения с других экземпляров и прямые записи в базу — при периодической сверке {@link #refresh()}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+    private static final char PAD = '\0';
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_FACTOR = 2;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    /**
+     * Списки вещей по триграммам. Порядок ключей нужен для выборки триграмм по началу.
+     */
+    private final NavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+    @PostConstruct
+    void load() {
+        forEachItem(item -> index(ItemChangedEvent.of(item)));
+        log.info("Поисковый индекс построен: {} вещей, {} триграмм", documents.size(), postings.size());
+    }
+
+    /**
+     * Сверяет индекс с базой: перечитывает все вещи и убирает удалённые. Вещи, добавленные событием во время
+     * сверки, не удаляются, даже если чтение из базы их ещё не видело.
+     */
+    public void refresh() {
+        Set<Long> stale = new HashSet<>(documents.keySet());
+        forEachItem(item -> {
+            stale.remove(item.getId());
+            index(ItemChangedEvent.of(item));
+        });
+        stale.forEach(this::remove);
+        log.info("Поисковый индекс сверен с базой: {} вещей, удалено {}", documents.size(), stale.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        index(event);
+    }
+
+    public List<Long> search(String text, int from, int size) {
+        if (text == null || text.isEmpty() || text.indexOf(PAD) >= 0) {
+            return List.of();
+        }
+        String query = text.toLowerCase(Locale.ROOT);
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Long id : candidates(query)) {
+            Document document = documents.get(id);
+            int score = document == null || !document.available() ? 0 : document.score(query);
+            if (score > 0) {
+                scores.put(id, score);
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .skip(from)
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Вещи, у которых есть все триграммы запроса, или, для запроса короче триграммы, хотя бы одна триграмма,
+     * начинающаяся с него.
+     */
+    private Set<Long> candidates(String query) {
+        if (query.length() < GRAM) {
+            Set<Long> ids = new HashSet<>();
+            postings.subMap(query, query + Character.MAX_VALUE).values().forEach(ids::addAll);
+            return ids;
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> ids = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !ids.isEmpty(); i++) {
+            ids.retainAll(lists.get(i));
+        }
+        return ids;
+    }
+
+    private synchronized void index(ItemChangedEvent event) {
+        Document old = documents.get(event.id());
+        Document document = Document.of(event);
+        Set<String> grams = document.grams();
+        if (old != null) {
+            old.grams().stream().filter(gram -> !grams.contains(gram)).forEach(gram -> unlink(gram, event.id()));
+        }
+        grams.forEach(gram -> postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(event.id()));
+        documents.put(event.id(), document);
+    }
+
+    private synchronized void remove(long id) {
+        Document old = documents.remove(id);
+        if (old != null) {
+            old.grams().forEach(gram -> unlink(gram, id));
+        }
+    }
+
+    private void forEachItem(Consumer<Item> action) {
+        Slice<Item> slice = itemRepository.findAll(PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("id")));
+        slice.forEach(action);
+        while (slice.hasNext()) {
+            slice = itemRepository.findAll(slice.nextPageable());
+            slice.forEach(action);
+        }
+    }
+
+    private void unlink(String gram, long id) {
+        Set<Long> ids = postings.get(gram);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String lowerCase(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Document(String name, String description, boolean available) {
+        static Document of(ItemChangedEvent event) {
+            return new Document(lowerCase(event.name()), lowerCase(event.description()), event.available());
+        }
+
+        /**
+         * Вес совпадения запроса с вещью, 0 если запрос не входит ни в название, ни в описание.
+         */
+        int score(String query) {
+            return Math.max(score(name, query, NAME_WEIGHT), score(description, query, DESCRIPTION_WEIGHT));
+        }
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name + PAD + PAD);
+            grams.addAll(ItemSearchIndex.grams(description + PAD + PAD));
+            return grams;
+        }
+
+        private static int score(String field, String query, int weight) {
+            int found = field.indexOf(query);
+            if (found < 0) {
+                return 0;
+            }
+            for (; found >= 0; found = field.indexOf(query, found + 1)) {
+                int end = found + query.length();
+                if ((found == 0 || !Character.isLetterOrDigit(field.charAt(found - 1)))
+                        && (end == field.length() || !Character.isLetterOrDigit(field.charAt(end)))) {
+                    return weight * EXACT_MATCH_FACTOR;
+                }
+            }
+            return weight;
+        }
+    }
+}
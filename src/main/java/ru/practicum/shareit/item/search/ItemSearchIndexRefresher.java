@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодически сверяет поисковый индекс с базой, чтобы в поиск попадали вещи, изменённые другими экземплярами.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.refresh.enabled", havingValue = "true")
+public class ItemSearchIndexRefresher {
+    private final ItemSearchIndex itemSearchIndex;
+
+    @Scheduled(fixedDelayString = "${shareit.search.refresh.interval}",
+            initialDelayString = "${shareit.search.refresh.interval}")
+    public void refresh() {
+        itemSearchIndex.refresh();
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Добавляет к http.server.requests тег state, чтобы время ответа списков бронирований
+ * можно было сравнивать по фильтру.
+ */
+@Component
+public class BookingStateObservationConvention extends DefaultServerRequestObservationConvention {
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context)
+                .and(RequestTags.STATE, RequestTags.state(context.getCarrier()));
+    }
+}
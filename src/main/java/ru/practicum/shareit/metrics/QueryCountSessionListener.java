@@ -0,0 +1,19 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Создаётся Hibernate для каждой сессии (hibernate.session.events.auto) и считает подготовленные
+ * запросы и полученные соединения.
+ */
+public class QueryCountSessionListener implements SessionEventListener {
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        QueryCounter.statementPrepared();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        QueryCounter.connectionAcquired();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.metrics;
+
+/**
+ * Счётчики обращений к базе в рамках текущего HTTP-запроса. Заполняются слушателями Hibernate
+ * в потоке, который обрабатывает запрос, и в потоке асинхронного тела ответа, куда счётчик переносит
+ * {@link #wrap(Runnable)}; вне запроса ничего не считается.
+ */
+public final class QueryCounter {
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long entitiesLoaded;
+    private long connections;
+
+    static void bind(QueryCounter counter) {
+        CURRENT.set(counter);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Задача, которая считает обращения к базе в счётчик текущего запроса, в каком бы потоке она ни выполнялась.
+     */
+    public static Runnable wrap(Runnable task) {
+        QueryCounter counter = CURRENT.get();
+        if (counter == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(counter);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    static void statementPrepared() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.entitiesLoaded++;
+        }
+    }
+
+    static void connectionAcquired() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.connections++;
+        }
+    }
+
+    long statements() {
+        return statements;
+    }
+
+    long entitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    long connections() {
+        return connections;
+    }
+}
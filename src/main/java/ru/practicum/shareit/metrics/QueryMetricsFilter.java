@@ -0,0 +1,70 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Записывает, сколько запросов к базе, загруженных сущностей и соединений понадобилось на один HTTP-запрос.
+ * Метрики тегируются так же, как http.server.requests: method, uri и state. Если ответ пишется асинхронно
+ * (StreamingResponseBody), счётчик хранится в атрибуте запроса и записывается после асинхронной обработки.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryMetricsFilter extends OncePerRequestFilter {
+    private static final String COUNTER_ATTRIBUTE = QueryCounter.class.getName();
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter counter = request.getAttribute(COUNTER_ATTRIBUTE) instanceof QueryCounter current
+                ? current : new QueryCounter();
+        QueryCounter.bind(counter);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryCounter.unbind();
+            if (request.isAsyncStarted()) {
+                request.setAttribute(COUNTER_ATTRIBUTE, counter);
+            } else {
+                record(request, counter);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryCounter counter) {
+        Tags tags = Tags.of("method", request.getMethod(),
+                "uri", RequestTags.uri(request),
+                RequestTags.STATE, RequestTags.state(request));
+        record("shareit.request.statements", "Подготовленные SQL-запросы за HTTP-запрос",
+                tags, counter.statements());
+        record("shareit.request.entities.loaded", "Сущности, загруженные за HTTP-запрос",
+                tags, counter.entitiesLoaded());
+        record("shareit.request.connections", "Соединения, полученные из пула за HTTP-запрос",
+                tags, counter.connections());
+    }
+
+    private void record(String name, String description, Tags tags, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.experimental.UtilityClass;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Теги метрик, общие для таймеров запросов и счётчиков обращений к базе.
+ */
+@UtilityClass
+public class RequestTags {
+    public static final String STATE = "state";
+    public static final String NONE = "none";
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private static final Set<String> STATES = Arrays.stream(BookingState.values())
+            .map(Enum::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    /**
+     * Фильтр {@link BookingState}, с которым обработан запрос. Если параметр state не передан,
+     * берётся значение по умолчанию из обработчика; неизвестные значения сводятся к UNKNOWN,
+     * чтобы число тегов оставалось ограниченным.
+     */
+    public String state(HttpServletRequest request) {
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)) {
+            return NONE;
+        }
+        for (MethodParameter parameter : handler.getMethodParameters()) {
+            RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+            if (requestParam != null && STATE.equals(requestParam.name())) {
+                String value = request.getParameter(STATE);
+                if (value == null && !ValueConstants.DEFAULT_NONE.equals(requestParam.defaultValue())) {
+                    value = requestParam.defaultValue();
+                }
+                return value != null && STATES.contains(value) ? value : UNKNOWN;
+            }
+        }
+        return NONE;
+    }
+
+    public String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
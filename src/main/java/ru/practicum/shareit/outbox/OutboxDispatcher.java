@@ -0,0 +1,162 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.JobLock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Доставляет сообщения outbox обработчикам их типа пачками по времени создания. Обработчики вызываются
+ * вне транзакции, отметка о доставке ставится после них, поэтому при сбое между ними сообщение будет доставлено
+ * повторно. Неудачная обработка повторяется с растущей паузой (см. {@link OutboxProperties}) и до тех пор
+ * задерживает только следующие сообщения того же агрегата, чтобы события одного бронирования не обгоняли
+ * друг друга. Сообщение, не доставленное за все попытки, откладывается, и очередь агрегата идёт дальше.
+ * Порядок создания соблюдается внутри агрегата: изменения одного бронирования упорядочены его строкой,
+ * а время создания на разных экземплярах сравнимо с точностью до расхождения их часов.
+ * <p>
+ * Диспетчер включён на каждом экземпляре, но проход выполняет только тот, что захватил {@link JobLock}:
+ * очередь разбирается одним потоком, и порядок доставки не зависит от числа экземпляров.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(name = "shareit.outbox.enabled", havingValue = "true")
+public class OutboxDispatcher {
+    private static final String LOCK = "outbox";
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxProperties properties;
+    private final Map<String, List<OutboxHandler>> handlers;
+    private final TransactionTemplate transaction;
+    private final JobLock jobLock;
+    private final MeterRegistry meterRegistry;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxDispatcher(OutboxRepository outboxRepository, OutboxProperties properties,
+                            List<OutboxHandler> handlers, PlatformTransactionManager transactionManager,
+                            JobLock jobLock, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.properties = properties;
+        this.handlers = handlers.stream().collect(Collectors.groupingBy(OutboxHandler::type));
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.jobLock = jobLock;
+        this.meterRegistry = meterRegistry;
+        this.batchTimer = Timer.builder("shareit.outbox.batch")
+                .description("Доставка одной пачки сообщений outbox")
+                .register(meterRegistry);
+        Gauge.builder("shareit.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Возраст самого старого недоставленного сообщения на последнем проходе, секунды")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.interval}")
+    public void dispatch() {
+        jobLock.runExclusively(LOCK, this::dispatchPending);
+    }
+
+    private void dispatchPending() {
+        boolean more;
+        do {
+            more = batchTimer.record(this::dispatchBatch);
+        } while (more);
+        int purged = transaction.execute(status -> {
+            int deleted = outboxRepository.deleteDispatchedBefore(LocalDateTime.now().minus(properties.getRetention()));
+            if (deleted > 0) {
+                outboxRepository.deleteProcessedOfPurged();
+            }
+            return deleted;
+        });
+        if (purged > 0) {
+            log.info("Удалено {} доставленных сообщений outbox", purged);
+        }
+    }
+
+    /**
+     * Возвращает true, если пачка доставлена полностью и за ней могут быть ещё сообщения.
+     */
+    private boolean dispatchBatch() {
+        List<OutboxMessage> batch = transaction.execute(status ->
+                outboxRepository.findPending(LocalDateTime.now(), Limit.of(properties.getBatchSize())));
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return false;
+        }
+        lagMillis.set(Duration.between(batch.get(0).getCreated(), LocalDateTime.now()).toMillis());
+        List<Long> delivered = new ArrayList<>(batch.size());
+        Set<Long> retried = new HashSet<>();
+        for (OutboxMessage message : batch) {
+            // Следующие сообщения агрегата ждут повтора неудачного и в следующую пачку не попадут
+            if (retried.contains(message.getAggregateId())) {
+                continue;
+            }
+            if (deliver(message)) {
+                delivered.add(message.getId());
+            } else if (message.getParked() == null) {
+                retried.add(message.getAggregateId());
+            }
+        }
+        if (!delivered.isEmpty()) {
+            transaction.executeWithoutResult(status ->
+                    outboxRepository.markDispatched(delivered, LocalDateTime.now()));
+        }
+        return batch.size() == properties.getBatchSize();
+    }
+
+    /**
+     * Возвращает true, если сообщение можно отметить доставленным. После последней неудачной попытки
+     * сообщение откладывается и получает parked.
+     */
+    private boolean deliver(OutboxMessage message) {
+        try {
+            for (OutboxHandler handler : handlers.getOrDefault(message.getType(), List.of())) {
+                handler.handle(message);
+            }
+            meterRegistry.counter("shareit.outbox.dispatched", "type", message.getType()).increment();
+            return true;
+        } catch (RuntimeException e) {
+            meterRegistry.counter("shareit.outbox.failures", "type", message.getType()).increment();
+            LocalDateTime now = LocalDateTime.now();
+            if (message.getAttempts() + 1 >= properties.getMaxAttempts()) {
+                transaction.executeWithoutResult(status -> outboxRepository.park(message.getId(), now));
+                message.setParked(now);
+                meterRegistry.counter("shareit.outbox.parked", "type", message.getType()).increment();
+                log.error("Сообщение outbox {} не доставлено за {} попыток и отложено", message.getId(),
+                        properties.getMaxAttempts(), e);
+                return false;
+            }
+            transaction.executeWithoutResult(status -> outboxRepository.incrementAttempts(message.getId(),
+                    now.plus(backoff(message.getAttempts()))));
+            log.warn("Ошибка доставки сообщения outbox {}: {}", message.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Пауза перед повтором после attempts + 1 неудачных попыток: interval, удвоенный attempts раз,
+     * но не больше maxBackoff.
+     */
+    private Duration backoff(int attempts) {
+        Duration backoff = properties.getInterval().multipliedBy(1L << Math.min(attempts, 30));
+        return backoff.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : backoff;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * POST /actuator/outbox с {"fromId": N} переигрывает сохранившиеся сообщения с id не меньше N, в том числе
+ * отложенные после всех неудачных попыток. Обработчики идемпотентны, поэтому повторно доставленные сообщения
+ * побочных эффектов не дублируют.
+ * <p>
+ * Операция меняет данные, поэтому по HTTP endpoint не открыт: его добавляют в management.endpoints.web.exposure.include
+ * только там, где actuator доступен лишь администраторам.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "outbox")
+@RequiredArgsConstructor
+public class OutboxEndpoint {
+    private final OutboxRepository outboxRepository;
+
+    @Transactional
+    @WriteOperation
+    public Map<String, Integer> replay(long fromId) {
+        int requeued = outboxRepository.requeueFrom(fromId);
+        log.info("Сообщения outbox начиная с {} возвращены в очередь: {}", fromId, requeued);
+        return Map.of("requeued", requeued);
+    }
+}
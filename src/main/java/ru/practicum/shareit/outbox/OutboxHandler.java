@@ -0,0 +1,12 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Обработчик сообщений outbox одного типа. Доставка гарантируется не менее одного раза: после сбоя
+ * или переигрывания сообщение приходит повторно, поэтому обработка должна быть идемпотентной по id сообщения.
+ */
+public interface OutboxHandler {
+
+    String type();
+
+    void handle(OutboxMessage message);
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сообщение outbox. Пока dispatched пуст, сообщение ждёт доставки, после неудачной попытки — не раньше nextAttempt.
+ * Сообщение, не доставленное за все попытки, отложено с момента parked и ждёт переигрывания.
+ */
+@Entity
+@Table(name = "outbox")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private long id;
+
+    @Column(name = "event_type", nullable = false)
+    private String type;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private long aggregateId;
+
+    @Column(nullable = false)
+    @ToString.Exclude
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
+
+    private LocalDateTime dispatched;
+
+    private int attempts;
+
+    @Column(name = "next_attempt")
+    private LocalDateTime nextAttempt;
+
+    private LocalDateTime parked;
+
+    public OutboxMessage(String type, long aggregateId, String payload) {
+        this.type = type;
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+        this.created = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Доставка сообщений outbox. После неудачной обработки сообщение повторяется через interval, и пауза удваивается
+ * с каждой попыткой, но не превышает maxBackoff. Сообщение, обработка которого не удалась maxAttempts раз,
+ * откладывается и остаётся в таблице до переигрывания. Доставленные сообщения удаляются через retention.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.outbox")
+public class OutboxProperties {
+    private boolean enabled = true;
+    private Duration interval = Duration.ofSeconds(1);
+    private int batchSize = 100;
+    private int maxAttempts = 10;
+    private Duration maxBackoff = Duration.ofMinutes(5);
+    private Duration retention = Duration.ofDays(7);
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.utils.IndexedBy;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long> {
+    /**
+     * Недоставленные сообщения по времени создания, кроме отложенных и тех, чей агрегат ждёт повтора
+     * неудачной доставки.
+     */
+    @IndexedBy({"outbox(dispatched, parked, created)", "outbox(aggregate_id, dispatched)"})
+    @Query("SELECT m FROM OutboxMessage m WHERE m.dispatched IS NULL AND m.parked IS NULL AND NOT EXISTS (" +
+            "SELECT w FROM OutboxMessage w WHERE w.aggregateId = m.aggregateId AND w.dispatched IS NULL " +
+            "AND w.parked IS NULL AND w.nextAttempt > ?1) ORDER BY m.created, m.id")
+    List<OutboxMessage> findPending(LocalDateTime now, Limit limit);
+
+    @IndexedBy("outbox(id)")
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.dispatched = ?2 WHERE m.id IN ?1")
+    int markDispatched(Collection<Long> ids, LocalDateTime dispatched);
+
+    @IndexedBy("outbox(id)")
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.attempts = m.attempts + 1, m.nextAttempt = ?2 WHERE m.id = ?1")
+    int incrementAttempts(long id, LocalDateTime nextAttempt);
+
+    @IndexedBy("outbox(id)")
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.attempts = m.attempts + 1, m.parked = ?2 WHERE m.id = ?1")
+    int park(long id, LocalDateTime parked);
+
+    @IndexedBy("outbox(dispatched)")
+    @Modifying
+    @Query("DELETE FROM OutboxMessage m WHERE m.dispatched < ?1")
+    int deleteDispatchedBefore(LocalDateTime dispatched);
+
+    /**
+     * Возвращает в очередь сохранившиеся сообщения с id не меньше fromId, в том числе доставленные и отложенные.
+     */
+    @IndexedBy("outbox(id)")
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.dispatched = NULL, m.parked = NULL, m.attempts = 0, m.nextAttempt = NULL " +
+            "WHERE m.id >= ?1")
+    int requeueFrom(long fromId);
+
+    /**
+     * Отмечает, что обработчик handler обработал сообщение. Возвращает 0, если отметка уже есть.
+     */
+    @IndexedBy("outbox_processed(handler, message_id)")
+    @Modifying
+    @Query(value = "INSERT INTO outbox_processed (handler, message_id, processed) SELECT ?1, ?2, ?3 " +
+            "WHERE NOT EXISTS (SELECT 1 FROM outbox_processed WHERE handler = ?1 AND message_id = ?2)",
+            nativeQuery = true)
+    int markProcessed(String handler, long messageId, LocalDateTime processed);
+
+    /**
+     * Удаляет отметки об обработке сообщений, которых уже нет в outbox: переиграть их невозможно.
+     */
+    @IndexedBy("outbox(id)")
+    @Modifying
+    @Query(value = "DELETE FROM outbox_processed p " +
+            "WHERE NOT EXISTS (SELECT 1 FROM outbox m WHERE m.id = p.message_id)", nativeQuery = true)
+    int deleteProcessedOfPurged();
+}
@@ -1,7 +1,39 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.*;
+import lombok.*;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
 /**
- * TODO Sprint add-item-requests.
+ * Запрос вещи, которой пока нет среди доступных. Другие пользователи отвечают на него, добавляя вещь
+ * со ссылкой на запрос.
  */
+@Entity
+@Table(name = "requests")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
 public class ItemRequest {
-}
\ No newline at end of file
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
+    private long id;
+
+    @Column(nullable = false)
+    private String description;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requester_id", nullable = false)
+    @ToString.Exclude
+    private User requester;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
+
+    @Version
+    private long version;
+}
@@ -1,13 +1,73 @@
-
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.request.dto.ItemRequestDtoRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.Cursor;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
+@Slf4j
+@RequiredArgsConstructor
 @RestController
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ItemRequestDtoResponse saveNewRequest(
+            @Validated(Create.class) @RequestBody ItemRequestDtoRequest itemRequestDtoRequest,
+            @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("POST / requests / user {}", userId);
+        return itemRequestService.saveNewRequest(itemRequestDtoRequest, userId);
+    }
+
+    /**
+     * Свои запросы пользователя с ответами, от новых к старым.
+     */
+    @GetMapping
+    public ResponseEntity<List<ItemRequestDtoResponse>> getOwnRequests(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        log.info("GET / requests / user {}", userId);
+        return toPage(itemRequestService.getOwnRequests(userId, Cursor.decode(cursor), size), size);
+    }
+
+    /**
+     * Запросы других пользователей, от новых к старым.
+     */
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDtoResponse>> getOtherRequests(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        log.info("GET / requests / all / user {}", userId);
+        return toPage(itemRequestService.getOtherRequests(userId, Cursor.decode(cursor), size), size);
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDtoResponse getRequestById(@PathVariable long requestId,
+                                                 @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("GET / requests / {}", requestId);
+        return itemRequestService.getRequestById(requestId, userId);
+    }
+
+    private ResponseEntity<List<ItemRequestDtoResponse>> toPage(List<ItemRequestDtoResponse> requests, int size) {
+        if (requests.size() < size) {
+            return ResponseEntity.ok(requests);
+        }
+        ItemRequestDtoResponse last = requests.get(requests.size() - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, new Cursor(last.getCreated(), last.getId()).encode())
+                .body(requests);
+    }
 }
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.utils.IndexedBy;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @IndexedBy("requests(requester_id, created)")
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE r.requester.id = ?1 " +
+            "AND (r.created < ?2 OR (r.created = ?2 AND r.id < ?3)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequesterId(long requesterId, LocalDateTime created, long id, Limit limit);
+
+    /**
+     * Лента чужих запросов идёт по индексу (created, id) и пропускает запросы самого пользователя.
+     */
+    @IndexedBy("requests(created)")
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE r.requester.id <> ?1 " +
+            "AND (r.created < ?2 OR (r.created = ?2 AND r.id < ?3)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequesterIdNot(long requesterId, LocalDateTime created, long id, Limit limit);
+
+    @IndexedBy("requests(id)")
+    @Query("SELECT r.id FROM ItemRequest r WHERE r.id IN ?1")
+    List<Long> findIdsIn(Collection<Long> requestIds);
+}
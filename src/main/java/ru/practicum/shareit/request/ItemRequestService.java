@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.request.dto.ItemRequestDtoRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.utils.Cursor;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestDtoResponse saveNewRequest(ItemRequestDtoRequest itemRequestDtoRequest, long userId);
+
+    List<ItemRequestDtoResponse> getOwnRequests(long userId, Cursor cursor, int size);
+
+    List<ItemRequestDtoResponse> getOtherRequests(long userId, Cursor cursor, int size);
+
+    ItemRequestDtoResponse getRequestById(long requestId, long userId);
+}
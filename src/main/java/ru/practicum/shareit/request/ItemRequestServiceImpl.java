@@ -0,0 +1,101 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserView;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.Cursor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Transactional
+@Service
+@RequiredArgsConstructor
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public ItemRequestDtoResponse saveNewRequest(ItemRequestDtoRequest itemRequestDtoRequest, long userId) {
+        UserView requester = getUser(userId);
+        ItemRequest itemRequest = itemRequestRepository.save(ItemRequestMapper.toItemRequest(itemRequestDtoRequest,
+                userRepository.getReferenceById(requester.id())));
+        log.info("Запрос вещи с идентификатором {} создан", itemRequest.getId());
+        return ItemRequestMapper.toItemRequestDtoResponse(itemRequest, Collections.emptyList());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemRequestDtoResponse> getOwnRequests(long userId, Cursor cursor, int size) {
+        log.info("Получение запросов пользователя {}", userId);
+        UserView requester = getUser(userId);
+        return withAnswers(itemRequestRepository.findAllByRequesterId(requester.id(), cursor.position(),
+                cursor.id(), toLimit(size)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemRequestDtoResponse> getOtherRequests(long userId, Cursor cursor, int size) {
+        log.info("Получение запросов других пользователей для {}", userId);
+        UserView user = getUser(userId);
+        return withAnswers(itemRequestRepository.findAllByRequesterIdNot(user.id(), cursor.position(),
+                cursor.id(), toLimit(size)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ItemRequestDtoResponse getRequestById(long requestId, long userId) {
+        log.info("Получение запроса вещи по идентификатору {}", requestId);
+        getUser(userId);
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", ItemRequest.class)));
+        return withAnswers(List.of(itemRequest)).get(0);
+    }
+
+    /**
+     * Ответы на все запросы страницы загружаются одним запросом.
+     */
+    private List<ItemRequestDtoResponse> withAnswers(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<ItemAnswerDto>> answers = itemRepository.findAnswersByRequestIdIn(itemRequests.stream()
+                        .map(ItemRequest::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(ItemAnswerDto::getRequestId));
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.toItemRequestDtoResponse(itemRequest,
+                        answers.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    private Limit toLimit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
+        return Limit.of(size);
+    }
+
+    private UserView getUser(long userId) {
+        return userRepository.findCachedById(userId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Вещь, добавленная в ответ на запрос.
+ */
+@Data
+@AllArgsConstructor
+public class ItemAnswerDto {
+    private long id;
+    private String name;
+    private String description;
+    private Boolean available;
+    private long requestId;
+    private long ownerId;
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.request.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import ru.practicum.shareit.utils.Create;
+
+@Data
+public class ItemRequestDtoRequest {
+    @Size(max = 1000, groups = {Create.class})
+    @NotBlank(groups = {Create.class})
+    private String description;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ItemRequestDtoResponse {
+    private long id;
+    private String description;
+    private LocalDateTime created;
+    private List<ItemAnswerDto> items;
+}
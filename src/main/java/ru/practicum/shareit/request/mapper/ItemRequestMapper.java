@@ -0,0 +1,31 @@
+package ru.practicum.shareit.request.mapper;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@UtilityClass
+public class ItemRequestMapper {
+    public ItemRequestDtoResponse toItemRequestDtoResponse(ItemRequest itemRequest, List<ItemAnswerDto> items) {
+        return new ItemRequestDtoResponse(
+                itemRequest.getId(),
+                itemRequest.getDescription(),
+                itemRequest.getCreated(),
+                items
+        );
+    }
+
+    public ItemRequest toItemRequest(ItemRequestDtoRequest itemRequestDtoRequest, User requester) {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setDescription(itemRequestDtoRequest.getDescription());
+        itemRequest.setRequester(requester);
+        itemRequest.setCreated(LocalDateTime.now());
+        return itemRequest;
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.seed;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.search.ItemChangedEvent;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Заполняет пустую базу синтетическими пользователями, вещами, бронированиями и отзывами.
+ * Строки пишутся пакетами через JDBC, минуя JPA, поэтому миллионы бронирований загружаются за минуты.
+ * Включается свойством shareit.seed.enabled, объём задаётся остальными свойствами shareit.seed.*.
+ * Данные записываются до запуска веб-сервера, чтобы нагрузка не шла на наполовину заполненную базу.
+ * После загрузки пересчитываются сводка последних и следующих бронирований вещей и число отзывов.
+ * Если в базе уже есть пользователи, ничего не делает.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(SeedProperties.class)
+@ConditionalOnProperty(name = "shareit.seed.enabled", havingValue = "true")
+public class DataSeeder implements SmartInitializingSingleton {
+    private static final String[] WORDS = {
+            "дрель", "перфоратор", "отвертка", "шуруповерт", "лобзик", "пила", "болгарка", "лестница",
+            "палатка", "велосипед", "самокат", "рюкзак", "проектор", "колонка", "мангал", "удочка",
+            "аккумуляторная", "простая", "большая", "складная", "туристическая", "электрическая", "новая"
+    };
+
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemService itemService;
+    private final SeedProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("База уже содержит {} пользователей, генерация данных пропущена", existing);
+            return;
+        }
+        long started = System.nanoTime();
+        Random random = new Random(properties.getRandomSeed());
+        LocalDateTime now = LocalDateTime.now();
+        int users = properties.getUsers();
+
+        try (Batch batch = new Batch("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", null)) {
+            for (long id = 1; id <= users; id++) {
+                batch.add(id, "user" + id, "user" + id + "@mail.ru");
+            }
+        }
+
+        long itemId = 0;
+        long bookingId = 0;
+        long commentId = 0;
+        try (Batch items = new Batch("INSERT INTO items (id, name, description, owner_id, available) " +
+                "VALUES (?, ?, ?, ?, ?)", null);
+             Batch bookings = new Batch("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)", items);
+             Batch comments = new Batch("INSERT INTO comments (id, text, item_id, author_id, created) " +
+                     "VALUES (?, ?, ?, ?, ?)", items)) {
+            List<ItemChangedEvent> events = new ArrayList<>();
+            for (long owner = 1; owner <= users; owner++) {
+                for (int i = 0; i < properties.getItemsPerUser(); i++) {
+                    itemId++;
+                    String name = word(random) + " " + word(random);
+                    String description = word(random) + " " + word(random) + " " + word(random);
+                    boolean available = random.nextInt(10) > 0;
+                    items.add(itemId, name, description, owner, available);
+                    events.add(new ItemChangedEvent(itemId, name, description, available));
+
+                    // Бронирования вещи идут друг за другом без пересечений, примерно половина — в прошлом.
+                    LocalDateTime end = now.minusDays(properties.getBookingsPerItem());
+                    for (int j = 0; j < properties.getBookingsPerItem(); j++) {
+                        LocalDateTime start = end.plusHours(random.nextInt(24));
+                        end = start.plusHours(1 + random.nextInt(48));
+                        bookings.add(++bookingId, Timestamp.valueOf(start), Timestamp.valueOf(end), itemId,
+                                otherUser(random, owner, users), status(random).name());
+                    }
+                    for (int j = 0; j < properties.getCommentsPerItem(); j++) {
+                        comments.add(++commentId, "Отзыв: " + word(random), itemId, otherUser(random, owner, users),
+                                Timestamp.valueOf(now.minusHours(random.nextInt(24 * 365))));
+                    }
+                }
+            }
+            items.flush();
+            events.forEach(eventPublisher::publishEvent);
+        }
+
+        restartSequence("users_seq", users);
+        restartSequence("items_seq", itemId);
+        restartSequence("bookings_seq", bookingId);
+        restartSequence("comments_seq", commentId);
+        itemService.refreshAllSummaries(now);
+        log.info("Сгенерировано {} пользователей, {} вещей, {} бронирований, {} отзывов за {} мс",
+                users, itemId, bookingId, commentId, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static long otherUser(Random random, long owner, int users) {
+        if (users < 2) {
+            return owner;
+        }
+        long user = 1 + random.nextInt(users - 1);
+        return user >= owner ? user + 1 : user;
+    }
+
+    private static BookingStatus status(Random random) {
+        int value = random.nextInt(10);
+        if (value < 7) {
+            return BookingStatus.APPROVED;
+        }
+        return value < 9 ? BookingStatus.WAITING : BookingStatus.REJECTED;
+    }
+
+    /**
+     * Значение последовательности — верхняя граница диапазона, который Hibernate резервирует на шаг 50,
+     * поэтому она перезапускается с последнего идентификатора плюс шаг.
+     */
+    private void restartSequence(String sequence, long lastId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (lastId + ID_ALLOCATION_SIZE));
+    }
+
+    /**
+     * Накапливает строки и отправляет их одним пакетом. Перед отправкой сбрасывает пакет родительской таблицы,
+     * чтобы внешние ключи ссылались на уже записанные строки.
+     */
+    private class Batch implements AutoCloseable {
+        private final String sql;
+        private final Batch parent;
+        private final List<Object[]> rows = new ArrayList<>();
+
+        Batch(String sql, Batch parent) {
+            this.sql = sql;
+            this.parent = parent;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= properties.getBatchSize()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (parent != null) {
+                parent.flush();
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+}
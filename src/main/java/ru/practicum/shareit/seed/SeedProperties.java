@@ -0,0 +1,21 @@
+package ru.practicum.shareit.seed;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Объём синтетических данных, которые {@link DataSeeder} записывает в пустую базу.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.seed")
+public class SeedProperties {
+    private boolean enabled = false;
+    private int users = 1000;
+    private int itemsPerUser = 5;
+    private int bookingsPerItem = 20;
+    private int commentsPerItem = 3;
+    private int batchSize = 1000;
+    private long randomSeed = 42;
+}
@@ -2,10 +2,15 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.utils.BatchRowResult;
 import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.JsonStreamWriter;
 import ru.practicum.shareit.utils.Update;
 
 import java.util.List;
@@ -16,6 +21,7 @@ import java.util.List;
 @RequestMapping("/users")
 public class UserController {
     private final UserService userService;
+    private final JsonStreamWriter jsonStreamWriter;
 
     @GetMapping
     public List<UserDto> getAllUsers() {
@@ -23,6 +29,16 @@ public class UserController {
         return userService.getAllUsers();
     }
 
+    /**
+     * Все пользователи, отдаются по мере чтения из базы.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers(
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.info("GET / users / stream");
+        return jsonStreamWriter.write(accept, userService.streamAllUsers());
+    }
+
     @GetMapping("/{userId}")
     public UserDto getUserById(@PathVariable long userId) {
         log.info("GET / users / {}", userId);
@@ -35,6 +51,15 @@ public class UserController {
         return userService.saveNewUser(userDto);
     }
 
+    /**
+     * Создаёт до 1000 пользователей за запрос, результат возвращается по каждой строке.
+     */
+    @PostMapping("/batch")
+    public List<BatchRowResult<UserDto>> saveNewUsers(@RequestBody List<UserDto> userDtos) {
+        log.info("POST / users / batch {}", userDtos.size());
+        return userService.saveNewUsers(userDtos);
+    }
+
     @PatchMapping("/{userId}")
     public UserDto updateUser(@PathVariable long userId, @Validated(Update.class) @RequestBody UserDto userDto) {
         log.info("PATCH / users / {}", userId);
@@ -1,7 +1,67 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.user.dto.UserRevisionView;
+import ru.practicum.shareit.user.dto.UserView;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.IndexedBy;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    /**
+     * Имя и почта пользователя из кэша. Для связей сущностей используется {@link #getReferenceById(Object)}.
+     * При промахе пользователь читается вне текущей транзакции из основной базы, а не из отстающей реплики.
+     */
+    @IndexedBy("users(id)")
+    @Cacheable(cacheNames = CacheConfig.USERS, unless = "#result == null")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserView(u.id, u.name, u.email) FROM User u WHERE u.id = ?1")
+    Optional<UserView> findCachedById(long userId);
+
+    /**
+     * Есть ли у пользователя бронирования в архиве. Флаг меняется архиватором, поэтому не кэшируется.
+     */
+    @IndexedBy("users(id)")
+    @Query("SELECT u.bookingsArchived FROM User u WHERE u.id = ?1")
+    Optional<Boolean> findBookingsArchivedById(long userId);
+
+    @IndexedBy("users(id)")
+    List<User> findAllByIdGreaterThanOrderById(long afterId, Limit limit);
+
+    @IndexedBy({"users(id)", "items(owner_id)"})
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserRevisionView(u.itemsRevision, u.version, " +
+            "(SELECT COUNT(i) FROM Item i WHERE i.owner.id = u.id AND i.nextBooking.start <= ?2)) " +
+            "FROM User u WHERE u.id = ?1")
+    Optional<UserRevisionView> findRevisionById(long userId, LocalDateTime now);
+
+    @IndexedBy("users(id)")
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE users SET items_revision = items_revision + 1 WHERE id = :userId")
+    int incrementItemsRevision(long userId);
+
+    @IndexedBy("users(id)")
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE users SET items_revision = items_revision + 1 WHERE id IN :userIds")
+    int incrementItemsRevisions(Collection<Long> userIds);
+
+    @IndexedBy("users(id)")
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE users SET bookings_archived = TRUE " +
+            "WHERE id IN :userIds AND bookings_archived = FALSE")
+    int markBookingsArchived(Collection<Long> userIds);
+
+    @IndexedBy("users(email)")
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findEmailsIn(Collection<String> emails);
 }
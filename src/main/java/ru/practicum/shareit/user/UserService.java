@@ -1,16 +1,22 @@
 package ru.practicum.shareit.user;
 
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.utils.BatchRowResult;
+import ru.practicum.shareit.utils.ResultStream;
 
 import java.util.List;
 
 public interface UserService {
     List<UserDto> getAllUsers();
 
+    ResultStream<UserDto> streamAllUsers();
+
     UserDto getUserById(long userId);
 
     UserDto saveNewUser(UserDto userDto);
 
+    List<BatchRowResult<UserDto>> saveNewUsers(List<UserDto> userDtos);
+
     UserDto updateUser(long userId, UserDto userDto);
 
     void deleteUser(long userId);
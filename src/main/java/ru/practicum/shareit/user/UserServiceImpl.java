@@ -2,14 +2,30 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserView;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.BatchRowResult;
+import ru.practicum.shareit.utils.BatchValidator;
+import ru.practicum.shareit.utils.Create;
+import ru.practicum.shareit.utils.ResultStream;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -17,7 +33,11 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final int STREAM_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final BatchValidator batchValidator;
 
     @Transactional(readOnly = true)
     @Override
@@ -26,11 +46,23 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll().stream().map(UserMapper::toUserDto).collect(Collectors.toList());
     }
 
+    @Override
+    public ResultStream<UserDto> streamAllUsers() {
+        log.info("Потоковое получение всех пользователей");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return ResultStream.ofPages(transaction, STREAM_PAGE_SIZE, last ->
+                userRepository.findAllByIdGreaterThanOrderById(last == null ? 0 : last.getId(),
+                                Limit.of(STREAM_PAGE_SIZE)).stream()
+                        .map(UserMapper::toUserDto)
+                        .collect(Collectors.toList()));
+    }
+
     @Transactional(readOnly = true)
     @Override
     public UserDto getUserById(long userId) {
         log.info("Получение пользователя по идентификатору {}", userId);
-        User user = userRepository.findById(userId).orElseThrow(() ->
+        UserView user = userRepository.findCachedById(userId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
         return UserMapper.toUserDto(user);
     }
@@ -42,6 +74,43 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(user);
     }
 
+    /**
+     * Создаёт пользователей одной транзакцией. Строки с ошибками и занятыми адресами пропускаются,
+     * занятость адресов проверяется одним запросом на весь пакет, остальные строки вставляются пакетами JDBC.
+     */
+    @Override
+    public List<BatchRowResult<UserDto>> saveNewUsers(List<UserDto> userDtos) {
+        batchValidator.checkSize(userDtos);
+        log.info("Пакетное создание {} пользователей", userDtos.size());
+        List<String> emails = userDtos.stream().filter(Objects::nonNull).map(UserDto::getEmail)
+                .filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Set<String> takenEmails = new HashSet<>(userRepository.findEmailsIn(emails));
+        List<BatchRowResult<UserDto>> results = new ArrayList<>(Collections.nCopies(userDtos.size(), null));
+        List<Integer> indexes = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            Optional<String> error = batchValidator.validate(userDto, Create.class);
+            if (error.isEmpty() && !takenEmails.add(userDto.getEmail())) {
+                error = Optional.of(String.format("Адрес %s уже занят", userDto.getEmail()));
+            }
+            if (error.isPresent()) {
+                results.set(i, BatchRowResult.failed(i, error.get()));
+            } else {
+                User user = UserMapper.toUser(userDto);
+                user.setId(0);
+                indexes.add(i);
+                users.add(user);
+            }
+        }
+        userRepository.saveAll(users);
+        for (int i = 0; i < users.size(); i++) {
+            results.set(indexes.get(i), BatchRowResult.created(indexes.get(i), UserMapper.toUserDto(users.get(i))));
+        }
+        return results;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId")
     @Override
     public UserDto updateUser(long userId, UserDto userDto) {
         log.info("Обновление существующего пользователя {}", userDto.getName());
@@ -58,6 +127,7 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(oldUser);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     @Override
     public void deleteUser(long id) {
         log.info("Удаление пользователя по идентификатору {}", id);
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.user.dto;
+
+/**
+ * Счётчик изменений списка вещей пользователя, версия его строки и число вещей, следующее бронирование которых
+ * уже началось; из них собирается ETag ответа GET /items.
+ */
+public record UserRevisionView(long itemsRevision, long version, long startedItems) {
+}
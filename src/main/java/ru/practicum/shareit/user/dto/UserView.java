@@ -0,0 +1,8 @@
+package ru.practicum.shareit.user.dto;
+
+/**
+ * Неизменяемые поля пользователя, которые хранятся в кэше. Счётчики и флаги, меняющиеся запросами UPDATE,
+ * сюда не входят и всегда читаются из базы.
+ */
+public record UserView(long id, String name, String email) {
+}
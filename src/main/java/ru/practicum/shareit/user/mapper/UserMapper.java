@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.mapper;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoShort;
+import ru.practicum.shareit.user.dto.UserView;
 import ru.practicum.shareit.user.model.User;
 
 @UtilityClass
@@ -15,6 +16,21 @@ public class UserMapper {
         );
     }
 
+    public UserDto toUserDto(UserView user) {
+        return new UserDto(
+                user.id(),
+                user.name(),
+                user.email()
+        );
+    }
+
+    public UserDtoShort toUserDtoShort(UserView user) {
+        return new UserDtoShort(
+                user.id(),
+                user.name()
+        );
+    }
+
     public UserDtoShort toUserDtoShort(User user) {
         return new UserDtoShort(
                 user.getId(),
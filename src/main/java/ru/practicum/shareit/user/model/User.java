@@ -14,7 +14,8 @@ import jakarta.persistence.*;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private long id;
 
     @Column(nullable = false)
@@ -22,5 +23,27 @@ public class User {
 
     @Column(nullable = false, unique = true)
     private String email;
+
+    @Version
+    private long version;
+
+    /**
+     * Счётчик изменений списка вещей пользователя. Увеличивается только запросами UPDATE,
+     * поэтому сохранение пользователя его не перезаписывает.
+     */
+    @Column(insertable = false, updatable = false)
+    private long itemsRevision;
+
+    /**
+     * Есть ли у пользователя бронирования в архиве. Пока их нет, списки бронирований архив не читают.
+     */
+    @Column(insertable = false, updatable = false)
+    private boolean bookingsArchived;
+
+    public User(long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
 }
 
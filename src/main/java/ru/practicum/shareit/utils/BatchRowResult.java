@@ -0,0 +1,26 @@
+package ru.practicum.shareit.utils;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Результат одной строки пакетного запроса: созданный объект либо причина, по которой строка отклонена.
+ * Индекс совпадает с позицией строки в теле запроса.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchRowResult<T> {
+    private int index;
+    private T result;
+    private String error;
+
+    public static <T> BatchRowResult<T> created(int index, T result) {
+        return new BatchRowResult<>(index, result, null);
+    }
+
+    public static <T> BatchRowResult<T> failed(int index, String error) {
+        return new BatchRowResult<>(index, null, error);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.utils;
+
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Проверяет строки пакетного запроса по тем же аннотациям, что и одиночные запросы.
+ * Ошибки возвращаются по каждой строке, а не прерывают весь пакет.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchValidator {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final Validator validator;
+
+    public void checkSize(List<?> rows) {
+        if (rows == null || rows.isEmpty() || rows.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException(String.format("Пакет должен содержать от 1 до %d строк", MAX_BATCH_SIZE));
+        }
+    }
+
+    public Optional<String> validate(Object row, Class<?> group) {
+        if (row == null) {
+            return Optional.of("Пустая строка");
+        }
+        String errors = validator.validate(row, group).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return errors.isEmpty() ? Optional.empty() : Optional.of(errors);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Строгий ETag из версий строк, по которым собирается ответ: при изменении любой из них меняется и ETag.
+ */
+@UtilityClass
+public class EntityTag {
+    public String of(Object... parts) {
+        return Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("-", "\"", "\""));
+    }
+}
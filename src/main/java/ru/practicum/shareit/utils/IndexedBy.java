@@ -0,0 +1,17 @@
+package ru.practicum.shareit.utils;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Индексы, на которые опирается запрос репозитория, в виде {@code "table(column, column)"}.
+ * Перечисленные столбцы должны быть началом какого-либо индекса таблицы — при запуске проверяется только
+ * существование такого индекса, а не то, что запрос его использует.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface IndexedBy {
+    String[] value();
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Пишет {@link ResultStream} в ответ по мере чтения: JSON-массивом или NDJSON (один объект на строку).
+ * В памяти одновременно находится только текущий элемент.
+ */
+@Component
+public class JsonStreamWriter {
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter elementWriter;
+
+    public JsonStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // Ответ сбрасывается в сеть буфером сервлета, а не после каждого элемента.
+        this.elementWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * NDJSON, если клиент явно запросил application/x-ndjson, иначе JSON-массив.
+     */
+    public <T> ResponseEntity<StreamingResponseBody> write(String accept, ResultStream<T> result) {
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        return ndjson ? ndjson(result) : array(result);
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> array(ResultStream<T> result) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                result.forEach(element -> write(() -> elementWriter.writeValue(generator, element)));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> ndjson(ResultStream<T> result) {
+        StreamingResponseBody body = outputStream ->
+                result.forEach(element -> write(() -> writeLine(outputStream, element)));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, Object element) throws IOException {
+        outputStream.write(elementWriter.writeValueAsBytes(element));
+        outputStream.write(NEW_LINE);
+    }
+
+    private static void write(IoAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
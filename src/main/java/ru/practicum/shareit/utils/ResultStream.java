@@ -0,0 +1,37 @@
+package ru.practicum.shareit.utils;
+
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Результат, который отдаётся по одному элементу, не собираясь в список.
+ * Проверки запроса выполняются при создании, а чтение из базы — только при вызове {@link #forEach}.
+ */
+@FunctionalInterface
+public interface ResultStream<T> {
+    void forEach(Consumer<? super T> action);
+
+    /**
+     * Проходит выборку страницами по курсору. Функция next получает последний элемент предыдущей страницы
+     * (null для первой) и читает следующую. Каждая страница читается в отдельной короткой транзакции,
+     * поэтому медленный клиент не держит соединение с базой, а в памяти находится не больше одной страницы.
+     */
+    static <T> ResultStream<T> ofPages(TransactionOperations transaction, int pageSize, Function<T, List<T>> next) {
+        return action -> {
+            T last = null;
+            List<T> page;
+            do {
+                T position = last;
+                page = transaction.execute(status -> next.apply(position));
+                if (page == null || page.isEmpty()) {
+                    return;
+                }
+                page.forEach(action);
+                last = page.get(page.size() - 1);
+            } while (page.size() == pageSize);
+        };
+    }
+}
@@ -0,0 +1,18 @@
+-- Транзакционный outbox: события пишутся в одной транзакции с изменением данных и доставляются обработчикам
+-- фоновым диспетчером. Доставленные сообщения хранятся до очистки, чтобы их можно было переиграть.
+CREATE SEQUENCE outbox_seq START WITH 50 INCREMENT BY 50;
+
+CREATE TABLE outbox
+(
+    id           BIGINT                      NOT NULL,
+    event_type   VARCHAR(100)                NOT NULL,
+    aggregate_id BIGINT                      NOT NULL,
+    payload      VARCHAR(10000)              NOT NULL,
+    created      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    dispatched   TIMESTAMP WITHOUT TIME ZONE,
+    attempts     INTEGER DEFAULT 0           NOT NULL,
+    CONSTRAINT pk_outbox PRIMARY KEY (id)
+);
+
+-- Недоставленные сообщения по порядку и очистка доставленных.
+CREATE INDEX idx_outbox_dispatched ON outbox (dispatched, id);
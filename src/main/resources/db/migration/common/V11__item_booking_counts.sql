@@ -0,0 +1,40 @@
+-- Счётчики бронирований вещи для сводки владельца. Общее число, ожидающие, отклонённые и подтверждённое время
+-- обновляются при создании и подтверждении бронирования. Будущие и текущие пересчитываются периодически, когда
+-- наступает bookings_next_transition — ближайшее начало или окончание бронирования вещи.
+ALTER TABLE items ADD COLUMN bookings_total BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN bookings_waiting BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN bookings_rejected BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN bookings_future BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN bookings_current BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN booked_seconds BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN booked_from TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN booked_until TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN bookings_next_transition TIMESTAMP WITHOUT TIME ZONE;
+
+CREATE INDEX idx_items_bookings_next_transition ON items (bookings_next_transition);
+
+-- Будущие и текущие посчитает первый проход пересчёта: момент bookings_next_transition у всех вещей уже наступил.
+UPDATE items i
+SET bookings_total    = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id) +
+                        (SELECT COUNT(*) FROM bookings_archive b WHERE b.item_id = i.id),
+    bookings_waiting  = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id AND b.status = 'WAITING') +
+                        (SELECT COUNT(*) FROM bookings_archive b WHERE b.item_id = i.id AND b.status = 'WAITING'),
+    bookings_rejected = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id AND b.status = 'REJECTED') +
+                        (SELECT COUNT(*) FROM bookings_archive b WHERE b.item_id = i.id AND b.status = 'REJECTED'),
+    booked_seconds    = COALESCE((SELECT SUM(CAST(EXTRACT(EPOCH FROM b.end_date) - EXTRACT(EPOCH FROM b.start_date)
+                                                  AS BIGINT))
+                                  FROM bookings b WHERE b.item_id = i.id AND b.status = 'APPROVED'), 0) +
+                        COALESCE((SELECT SUM(CAST(EXTRACT(EPOCH FROM b.end_date) - EXTRACT(EPOCH FROM b.start_date)
+                                                  AS BIGINT))
+                                  FROM bookings_archive b WHERE b.item_id = i.id AND b.status = 'APPROVED'), 0),
+    booked_from       = (SELECT MIN(b.start_date)
+                         FROM (SELECT item_id, status, start_date FROM bookings
+                               UNION ALL
+                               SELECT item_id, status, start_date FROM bookings_archive) b
+                         WHERE b.item_id = i.id AND b.status = 'APPROVED'),
+    booked_until      = (SELECT MAX(b.end_date)
+                         FROM (SELECT item_id, status, end_date FROM bookings
+                               UNION ALL
+                               SELECT item_id, status, end_date FROM bookings_archive) b
+                         WHERE b.item_id = i.id AND b.status = 'APPROVED'),
+    bookings_next_transition = LOCALTIMESTAMP;
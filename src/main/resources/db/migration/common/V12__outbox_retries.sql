@@ -0,0 +1,12 @@
+-- Повтор неудачной доставки откладывается до next_attempt.
+ALTER TABLE outbox ADD COLUMN next_attempt TIMESTAMP WITHOUT TIME ZONE;
+
+-- Сообщения, уже обработанные обработчиком: повторная доставка после сбоя или переигрывания ими отсеивается.
+-- Отметки удаляются вместе с сообщениями при очистке outbox.
+CREATE TABLE outbox_processed
+(
+    handler    VARCHAR(100)                NOT NULL,
+    message_id BIGINT                      NOT NULL,
+    processed  TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_outbox_processed PRIMARY KEY (handler, message_id)
+);
@@ -0,0 +1,7 @@
+-- Блокировки фоновых задач: строку задачи блокирует экземпляр, который выполняет проход, остальные его пропускают.
+-- Строки добавляются задачами при первом запуске.
+CREATE TABLE job_lock
+(
+    name VARCHAR(100) NOT NULL,
+    CONSTRAINT pk_job_lock PRIMARY KEY (name)
+);
@@ -0,0 +1,9 @@
+-- Сообщения, не доставленные за все попытки, откладываются до ручного переигрывания и не задерживают очередь.
+ALTER TABLE outbox ADD COLUMN parked TIMESTAMP WITHOUT TIME ZONE;
+
+-- Очередь разбирается по времени создания: id выдаются экземплярам пулами последовательности
+-- и порядка записи не отражают.
+DROP INDEX idx_outbox_dispatched;
+CREATE INDEX idx_outbox_pending ON outbox (dispatched, parked, created, id);
+-- Сообщения агрегата, ожидающие повтора, задерживают только следующие сообщения того же агрегата.
+CREATE INDEX idx_outbox_aggregate ON outbox (aggregate_id, dispatched);
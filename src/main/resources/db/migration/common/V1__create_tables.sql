@@ -0,0 +1,39 @@
+CREATE TABLE users
+(
+    id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name  VARCHAR(255)                            NOT NULL,
+    email VARCHAR(255)                            NOT NULL,
+    CONSTRAINT pk_user PRIMARY KEY (id),
+    CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
+);
+
+CREATE TABLE items
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name         VARCHAR(255)                            NOT NULL,
+    description  VARCHAR(512)                            NOT NULL,
+    owner_id     BIGINT                                  NOT NULL REFERENCES users (id),
+    available BOOLEAN,
+    CONSTRAINT pk_item PRIMARY KEY (id)
+);
+
+CREATE TABLE bookings
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date   TIMESTAMP WITHOUT TIME ZONE,
+    item_id    BIGINT                                  NOT NULL REFERENCES items (id),
+    booker_id  BIGINT                                  NOT NULL REFERENCES users (id),
+    status     VARCHAR(50),
+    CONSTRAINT pk_booking PRIMARY KEY (id)
+);
+
+CREATE TABLE comments
+(
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    text      VARCHAR(512)                            NOT NULL,
+    item_id   BIGINT                                  NOT NULL REFERENCES items (id),
+    author_id BIGINT                                  NOT NULL REFERENCES users (id),
+    created   TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_comment PRIMARY KEY (id)
+);
@@ -0,0 +1,10 @@
+CREATE INDEX idx_items_owner_id ON items (owner_id);
+
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+CREATE INDEX idx_bookings_booker_status_start ON bookings (booker_id, status, start_date, id);
+CREATE INDEX idx_bookings_booker_item_end ON bookings (booker_id, item_id, end_date);
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date, id);
+CREATE INDEX idx_bookings_item_status_start ON bookings (item_id, status, start_date, id);
+CREATE INDEX idx_bookings_item_status_end ON bookings (item_id, status, end_date);
+
+CREATE INDEX idx_comments_item_created ON comments (item_id, created);
@@ -0,0 +1,28 @@
+-- Последнее и следующее подтверждённые бронирования вещи хранятся прямо в строке вещи.
+-- Приложение обновляет их при подтверждении бронирования и периодически сдвигает по времени,
+-- когда начало следующего бронирования наступает.
+
+ALTER TABLE items ADD COLUMN last_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN last_booking_booker_id BIGINT;
+ALTER TABLE items ADD COLUMN last_booking_start TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN last_booking_end TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN next_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN next_booking_booker_id BIGINT;
+ALTER TABLE items ADD COLUMN next_booking_start TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN next_booking_end TIMESTAMP WITHOUT TIME ZONE;
+
+CREATE INDEX idx_items_next_booking_start ON items (next_booking_start);
+
+UPDATE items i
+SET (last_booking_id, last_booking_booker_id, last_booking_start, last_booking_end) =
+        (SELECT b.id, b.booker_id, b.start_date, b.end_date
+         FROM bookings b
+         WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date <= LOCALTIMESTAMP
+         ORDER BY b.end_date DESC
+         LIMIT 1),
+    (next_booking_id, next_booking_booker_id, next_booking_start, next_booking_end) =
+        (SELECT b.id, b.booker_id, b.start_date, b.end_date
+         FROM bookings b
+         WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date > LOCALTIMESTAMP
+         ORDER BY b.end_date
+         LIMIT 1);
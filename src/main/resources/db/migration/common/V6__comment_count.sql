@@ -0,0 +1,9 @@
+-- Число отзывов вещи хранится в её строке и увеличивается при добавлении отзыва,
+-- поэтому ответы с вещами не пересчитывают отзывы.
+ALTER TABLE items ADD COLUMN comment_count BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE items i SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id);
+
+-- Отзывы вещи отдаются страницами по (created, id), идентификатор замыкает ключ сортировки.
+CREATE INDEX idx_comments_item_created_id ON comments (item_id, created, id);
+DROP INDEX idx_comments_item_created;
@@ -0,0 +1,8 @@
+-- Версии строк для оптимистической блокировки и ETag.
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE bookings ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE comments ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+-- Счётчик изменений списка вещей владельца, из него строится ETag ответа GET /items.
+ALTER TABLE users ADD COLUMN items_revision BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,24 @@
+-- Холодная таблица для давно закончившихся бронирований. Строки переносит BookingArchiver.
+CREATE TABLE bookings_archive
+(
+    id         BIGINT                      NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    BIGINT                      NOT NULL REFERENCES items (id),
+    booker_id  BIGINT                      NOT NULL REFERENCES users (id),
+    status     VARCHAR(50),
+    version    BIGINT                      NOT NULL,
+    CONSTRAINT pk_booking_archive PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date, id);
+CREATE INDEX idx_bookings_archive_booker_status_start ON bookings_archive (booker_id, status, start_date, id);
+CREATE INDEX idx_bookings_archive_booker_item_end ON bookings_archive (booker_id, item_id, end_date);
+CREATE INDEX idx_bookings_archive_item_start ON bookings_archive (item_id, start_date, id);
+CREATE INDEX idx_bookings_archive_item_status_start ON bookings_archive (item_id, status, start_date, id);
+
+-- Отбор строк для переноса в архив.
+CREATE INDEX idx_bookings_end ON bookings (end_date);
+
+-- Есть ли у пользователя архивные бронирования как у автора или как у владельца вещи.
+ALTER TABLE users ADD COLUMN bookings_archived BOOLEAN DEFAULT FALSE NOT NULL;
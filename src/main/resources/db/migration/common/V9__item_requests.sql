@@ -0,0 +1,19 @@
+-- Запросы вещей и ссылка вещи на запрос, в ответ на который она добавлена.
+CREATE SEQUENCE requests_seq START WITH 50 INCREMENT BY 50;
+
+CREATE TABLE requests
+(
+    id           BIGINT                      NOT NULL,
+    description  VARCHAR(1000)               NOT NULL,
+    requester_id BIGINT                      NOT NULL REFERENCES users (id),
+    created      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    version      BIGINT DEFAULT 0            NOT NULL,
+    CONSTRAINT pk_request PRIMARY KEY (id)
+);
+
+-- Свои запросы пользователя и лента всех запросов, от новых к старым.
+CREATE INDEX idx_requests_requester_created ON requests (requester_id, created, id);
+CREATE INDEX idx_requests_created ON requests (created, id);
+
+ALTER TABLE items ADD COLUMN request_id BIGINT REFERENCES requests (id);
+CREATE INDEX idx_items_request_id ON items (request_id);
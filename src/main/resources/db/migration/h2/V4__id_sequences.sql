@@ -0,0 +1,17 @@
+-- То же, что postgresql/V4__id_sequences.sql, для H2: база создаётся пустой, поэтому последовательности
+-- стартуют с 50.
+
+CREATE SEQUENCE users_seq START WITH 50 INCREMENT BY 50;
+CREATE SEQUENCE items_seq START WITH 50 INCREMENT BY 50;
+CREATE SEQUENCE bookings_seq START WITH 50 INCREMENT BY 50;
+CREATE SEQUENCE comments_seq START WITH 50 INCREMENT BY 50;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE users ALTER COLUMN id SET DEFAULT NEXT VALUE FOR users_seq;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR items_seq;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT NEXT VALUE FOR bookings_seq;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT NEXT VALUE FOR comments_seq;
@@ -0,0 +1,23 @@
+-- Идентификаторы выдаются последовательностями с шагом 50: Hibernate резервирует сразу 50 значений
+-- (оптимизатор pooled) и может отправлять вставки пакетами, чего не позволяют identity-столбцы.
+-- Значение последовательности — верхняя граница выданного диапазона, поэтому она стартует с MAX(id) + 50.
+
+CREATE SEQUENCE users_seq INCREMENT BY 50 OWNED BY users.id;
+CREATE SEQUENCE items_seq INCREMENT BY 50 OWNED BY items.id;
+CREATE SEQUENCE bookings_seq INCREMENT BY 50 OWNED BY bookings.id;
+CREATE SEQUENCE comments_seq INCREMENT BY 50 OWNED BY comments.id;
+
+SELECT setval('users_seq', COALESCE(MAX(id), 0) + 50, false) FROM users;
+SELECT setval('items_seq', COALESCE(MAX(id), 0) + 50, false) FROM items;
+SELECT setval('bookings_seq', COALESCE(MAX(id), 0) + 50, false) FROM bookings;
+SELECT setval('comments_seq', COALESCE(MAX(id), 0) + 50, false) FROM comments;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
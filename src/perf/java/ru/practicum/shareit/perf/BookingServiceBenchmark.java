@@ -0,0 +1,54 @@
+package ru.practicum.shareit.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.utils.Cursor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    public String state;
+
+    @Param("20")
+    public int size;
+
+    private BookingService bookingService;
+    private long ownerId;
+    private long bookerId;
+
+    @Setup
+    public void setUp(SeededApplication application) {
+        bookingService = application.getBean(BookingService.class);
+        ownerId = application.ownerId();
+        bookerId = application.bookerId();
+    }
+
+    @Benchmark
+    public List<BookingDtoResponse> getAllByOwner() {
+        return bookingService.getAllByOwner(ownerId, state, Cursor.FIRST, size);
+    }
+
+    @Benchmark
+    public List<BookingDtoResponse> getAllByBooker() {
+        return bookingService.getAllByBooker(state, bookerId, Cursor.FIRST, size);
+    }
+}
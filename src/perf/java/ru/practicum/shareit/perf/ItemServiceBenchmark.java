@@ -0,0 +1,48 @@
+package ru.practicum.shareit.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+    @Param({"дрель", "аккумуляторная дрель", "пер"})
+    public String text;
+
+    private ItemService itemService;
+    private long ownerId;
+
+    @Setup
+    public void setUp(SeededApplication application) {
+        itemService = application.getBean(ItemService.class);
+        ownerId = application.ownerId();
+    }
+
+    @Benchmark
+    public List<ItemDtoResponse> getItemsByOwner() {
+        return itemService.getItemsByOwner(ownerId);
+    }
+
+    @Benchmark
+    public List<ItemDtoResponse> getItemBySearch() {
+        return itemService.getItemBySearch(text, 0, 20);
+    }
+}
@@ -0,0 +1,200 @@
+package ru.practicum.shareit.perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Нагрузочный прогон REST API запущенного приложения с постоянной интенсивностью запросов.
+ * Запросы отправляются по расписанию независимо от ответов, а задержка считается от запланированного
+ * момента отправки, поэтому очередь на стороне сервера попадает в гистограмму.
+ * <p>
+ * Рассчитан на данные {@link ru.practicum.shareit.seed.DataSeeder}: пользователи 1..users,
+ * у каждого itemsPerUser вещей. Параметры передаются как {@code --rps=200 --duration=60 --users=1000}.
+ */
+public class LoadDriver {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String[] STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+    private static final String[] SEARCH_TEXTS = {"дрель", "пила", "аккумуляторная", "палат", "велосипед складной"};
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final String baseUrl;
+    private final int users;
+    private final int itemsPerUser;
+    private final Map<String, Scenario> scenarios = new LinkedHashMap<>();
+    private final List<Scenario> weighted = new ArrayList<>();
+
+    LoadDriver(String baseUrl, int users, int itemsPerUser) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.itemsPerUser = itemsPerUser;
+        add("users.get", 10, random -> get("/users/" + user(random), null));
+        add("items.owner", 10, random -> get("/items", user(random)));
+        add("items.get", 20, random -> get("/items/" + item(random), user(random)));
+        add("items.search", 15, random -> get("/items/search?text="
+                + URLEncoder.encode(pick(random, SEARCH_TEXTS), StandardCharsets.UTF_8), user(random)));
+        add("bookings.booker", 20, random -> get("/bookings?state=" + pick(random, STATES), user(random)));
+        add("bookings.owner", 20, random -> get("/bookings/owner?state=" + pick(random, STATES), user(random)));
+        add("bookings.create", 5, this::createBooking);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parse(args);
+        int rps = Integer.parseInt(options.getOrDefault("rps", "100"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        LoadDriver driver = new LoadDriver(options.getOrDefault("base-url", "http://localhost:8080"),
+                Integer.parseInt(options.getOrDefault("users", "1000")),
+                Integer.parseInt(options.getOrDefault("items-per-user", "5")));
+        driver.run(rps, Duration.ofSeconds(duration));
+    }
+
+    void run(int rps, Duration duration) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+        long total = duration.getSeconds() * rps;
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long intended = started + i * interval;
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Scenario scenario = weighted.get(ThreadLocalRandom.current().nextInt(weighted.size()));
+                executor.execute(() -> scenario.execute(intended));
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        report(System.nanoTime() - started);
+    }
+
+    private void report(long elapsedNanos) {
+        System.out.printf("%-16s %8s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+                "scenario", "count", "2xx", "4xx", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long count = 0;
+        for (Map.Entry<String, Scenario> entry : scenarios.entrySet()) {
+            Scenario scenario = entry.getValue();
+            Histogram histogram = scenario.latency;
+            count += histogram.getTotalCount();
+            System.out.printf("%-16s %8d %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), histogram.getTotalCount(), scenario.ok.sum(), scenario.clientErrors.sum(),
+                    scenario.errors.sum(), millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        }
+        System.out.printf("Выполнено %d запросов, %.1f в секунду%n", count,
+                count * 1e9 / elapsedNanos);
+    }
+
+    private HttpRequest createBooking(ThreadLocalRandom random) {
+        LocalDateTime start = LocalDateTime.now().plusDays(365 + random.nextInt(365 * 5)).withNano(0);
+        String body = String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}",
+                item(random), start, start.plusHours(1 + random.nextInt(48)));
+        return request("/bookings", user(random))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path, Long userId) {
+        return request(path, userId).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path, Long userId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (userId != null) {
+            builder.header(USER_HEADER, userId.toString());
+        }
+        return builder;
+    }
+
+    private long user(ThreadLocalRandom random) {
+        return 1 + random.nextInt(users);
+    }
+
+    private long item(ThreadLocalRandom random) {
+        return 1 + random.nextLong((long) users * itemsPerUser);
+    }
+
+    private static String pick(ThreadLocalRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private void add(String name, int weight, Function<ThreadLocalRandom, HttpRequest> factory) {
+        Scenario scenario = new Scenario(factory);
+        scenarios.put(name, scenario);
+        for (int i = 0; i < weight; i++) {
+            weighted.add(scenario);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private class Scenario {
+        private final Function<ThreadLocalRandom, HttpRequest> factory;
+        private final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        Scenario(Function<ThreadLocalRandom, HttpRequest> factory) {
+            this.factory = factory;
+        }
+
+        void execute(long intended) {
+            try {
+                HttpResponse<Void> response = client.send(factory.apply(ThreadLocalRandom.current()),
+                        HttpResponse.BodyHandlers.discarding());
+                int status = response.statusCode();
+                if (status < 300) {
+                    ok.increment();
+                } else if (status < 500) {
+                    clientErrors.increment();
+                } else {
+                    errors.increment();
+                }
+            } catch (Exception e) {
+                errors.increment();
+            }
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended),
+                    latency.getHighestTrackableValue()));
+        }
+    }
+}
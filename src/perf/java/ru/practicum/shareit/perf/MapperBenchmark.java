@@ -0,0 +1,84 @@
+package ru.practicum.shareit.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.comment.mapper.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDetailsView;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Мапперы без базы данных: сущности собираются в памяти один раз на запуск.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private Booking booking;
+    private Item item;
+    private ItemDetailsView itemDetails;
+    private Comment comment;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = new User(1, "owner", "owner@mail.ru");
+        User booker = new User(2, "booker", "booker@mail.ru");
+        item = Item.builder().id(1L).name("Дрель").description("Простая дрель").available(true).owner(owner).build();
+        booking = Booking.builder().id(1).start(now.minusDays(2)).end(now.minusDays(1)).item(item).booker(booker)
+                .status(BookingStatus.APPROVED).build();
+        comment = Comment.builder().id(1).text("Отлично").item(item).author(booker).created(now).build();
+        itemDetails = new ItemDetailsView(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                owner.getId(), owner.getName(),
+                1L, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED, booker.getId(),
+                2L, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED, booker.getId(), 1, null);
+    }
+
+    @Benchmark
+    public BookingDtoResponse bookingToDtoResponse() {
+        return BookingMapper.toBookingDtoResponse(booking);
+    }
+
+    @Benchmark
+    public BookingDtoShort bookingToDtoShort() {
+        return BookingMapper.toBookingDtoShort(booking);
+    }
+
+    @Benchmark
+    public ItemDtoResponse itemToDtoResponse() {
+        return ItemMapper.toItemDtoResponse(item);
+    }
+
+    @Benchmark
+    public ItemDtoResponse itemDetailsToDtoResponse() {
+        return ItemMapper.toItemDtoResponse(itemDetails);
+    }
+
+    @Benchmark
+    public CommentDtoResponse commentToDtoResponse() {
+        return CommentMapper.toCommentDtoResponse(comment);
+    }
+}
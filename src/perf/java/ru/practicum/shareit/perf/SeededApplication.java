@@ -0,0 +1,61 @@
+package ru.practicum.shareit.perf;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+
+/**
+ * Приложение на H2 в памяти, заполненное {@link ru.practicum.shareit.seed.DataSeeder}.
+ * Объём данных задаётся параметрами JMH: {@code -p users=1000 -p itemsPerUser=5 -p bookingsPerItem=50}.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+    @Param("200")
+    public int users;
+
+    @Param("5")
+    public int itemsPerUser;
+
+    @Param("20")
+    public int bookingsPerItem;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:perf",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.root=WARN",
+                        "shareit.seed.enabled=true",
+                        "shareit.seed.users=" + users,
+                        "shareit.seed.items-per-user=" + itemsPerUser,
+                        "shareit.seed.bookings-per-item=" + bookingsPerItem)
+                .run();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long ownerId() {
+        return 1;
+    }
+
+    public long bookerId() {
+        return users > 1 ? 2 : 1;
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Общий набор данных для тестов API: владелец с {@value #ITEMS} вещами, у каждой по {@value #BOOKINGS_PER_ITEM}
+ * подтверждённых бронирования двух пользователей, половина из них в прошлом. Данные вставляются в обход
+ * приложения, сводки вещей пересчитываются так же, как при запуске.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.shareit.RecordingStatementInspector"})
+@AutoConfigureMockMvc
+public abstract class ApiTestSupport {
+    protected static final int ITEMS = 3;
+    protected static final int BOOKINGS_PER_ITEM = 4;
+
+    @Autowired
+    protected MockMvc mvc;
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    @Autowired
+    protected ObjectMapper objectMapper;
+    @Autowired
+    protected ItemService itemService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private CacheManager cacheManager;
+
+    protected Statistics statistics;
+    protected long ownerId;
+    protected long bookerId;
+    protected long otherBookerId;
+    protected List<Long> itemIds;
+    protected long itemId;
+    protected long bookingId;
+    protected LocalDateTime now;
+
+    @BeforeEach
+    void setUpData() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        jdbcTemplate.update("DELETE FROM comments");
+        jdbcTemplate.update("DELETE FROM bookings_archive");
+        jdbcTemplate.update("DELETE FROM bookings");
+        jdbcTemplate.update("DELETE FROM items");
+        jdbcTemplate.update("DELETE FROM requests");
+        jdbcTemplate.update("DELETE FROM users");
+
+        ownerId = insert("users", Map.of("name", "owner", "email", "owner@mail.ru"));
+        bookerId = insert("users", Map.of("name", "booker", "email", "booker@mail.ru"));
+        otherBookerId = insert("users", Map.of("name", "other", "email", "other@mail.ru"));
+        itemIds = new ArrayList<>();
+        now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            itemId = insert("items", Map.of("name", "Дрель " + i, "description", "Простая дрель",
+                    "owner_id", ownerId, "available", true));
+            itemIds.add(itemId);
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                long booker = j % 2 == 0 ? bookerId : otherBookerId;
+                LocalDateTime start = now.plusDays(j * 2L - BOOKINGS_PER_ITEM).plusHours(1);
+                bookingId = insert("bookings", Map.of("start_date", start, "end_date", start.plusDays(1),
+                        "item_id", itemId, "booker_id", booker, "status", "APPROVED"));
+                insert("comments", Map.of("text", "Отлично", "item_id", itemId, "author_id", booker,
+                        "created", start.plusDays(1)));
+            }
+        }
+        itemService.refreshAllSummaries(now);
+        // Индекс поиска общий для всех тестов контекста: вещи прошлых тестов из него убираются
+        itemSearchIndex.refresh();
+    }
+
+    /**
+     * Выполняет запрос, дожидаясь асинхронного тела ответа, и проверяет, что он успешен.
+     */
+    protected MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertEquals(200, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        return result;
+    }
+
+    protected JsonNode json(MockHttpServletRequestBuilder request) throws Exception {
+        return objectMapper.readTree(perform(request).getResponse().getContentAsByteArray());
+    }
+
+    /**
+     * Выполняет запрос, проверяет число подготовленных SQL-выражений и возвращает разобранный ответ.
+     */
+    protected JsonNode assertStatements(long expected, MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        MvcResult result = perform(request);
+        assertEquals(expected, statistics.getPrepareStatementCount(), request.buildRequest(null).getRequestURI());
+        byte[] body = result.getResponse().getContentAsByteArray();
+        return body.length == 0 ? null : objectMapper.readTree(body);
+    }
+
+    /**
+     * Выполняет запрос и возвращает SQL, подготовленный Hibernate, без выборок пулов идентификаторов
+     * из последовательностей: когда они случаются, зависит от предыдущих тестов.
+     */
+    protected List<String> statements(MockHttpServletRequestBuilder request) throws Exception {
+        RecordingStatementInspector.clear();
+        perform(request);
+        return RecordingStatementInspector.recorded().stream()
+                .filter(sql -> !sql.contains("_seq"))
+                .toList();
+    }
+
+    protected void assertNotModified(MockHttpServletRequestBuilder request) throws Exception {
+        String etag = perform(request).getResponse().getHeader("ETag");
+        statistics.clear();
+        mvc.perform(request.header("If-None-Match", etag)).andExpect(status().isNotModified());
+        assertEquals(1, statistics.getPrepareStatementCount(), request.buildRequest(null).getRequestURI());
+    }
+
+    protected static List<Long> ids(JsonNode array) {
+        List<Long> ids = new ArrayList<>();
+        array.forEach(node -> ids.add(node.get("id").asLong()));
+        return ids;
+    }
+
+    protected long insert(String table, Map<String, Object> values) {
+        return new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName(table)
+                .usingColumns(values.keySet().toArray(String[]::new))
+                .usingGeneratedKeyColumns("id")
+                .executeAndReturnKey(values)
+                .longValue();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * База с таблицами из прежнего schema.sql, созданными до появления Flyway.
+ */
+@SpringBootTest
+class LegacySchemaMigrationTests {
+    private static final String URL = "jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "test", "test");
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:db/legacy-schema.sql'");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void existingSchemaIsBaselinedAndMigrated() {
+        List<Map<String, Object>> history = jdbcTemplate.queryForList("SELECT \"version\", \"type\" " +
+                "FROM \"flyway_schema_history\" WHERE \"installed_rank\" > 0 ORDER BY \"installed_rank\"");
+        assertEquals(Map.of("version", "1", "type", "BASELINE"), history.get(0));
+        assertEquals(Map.of("version", "2", "type", "SQL"), history.get(1));
+        assertEquals(Map.of("version", "14", "type", "SQL"), history.get(history.size() - 1));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Long.class));
+    }
+}
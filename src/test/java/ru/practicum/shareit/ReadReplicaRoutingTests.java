@@ -0,0 +1,153 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.config.AdmissionControlDataSource;
+import ru.practicum.shareit.config.ReplicaLagMonitor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Реплика здесь — второй пул к той же базе H2, поэтому маршрут соединения виден только по метрикам.
+ */
+@SpringBootTest(properties = {
+        "shareit.db.replica.enabled=true",
+        "shareit.db.replica.url=jdbc:h2:mem:shareit",
+        "shareit.db.replica.username=test",
+        "shareit.db.replica.password=test",
+        "shareit.db.replica.lag-query=SELECT 0",
+        "shareit.db.replica.stickiness=1m"})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTests {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor.check();
+        jdbcTemplate.update("DELETE FROM comments");
+        jdbcTemplate.update("DELETE FROM bookings_archive");
+        jdbcTemplate.update("DELETE FROM bookings");
+        jdbcTemplate.update("DELETE FROM items");
+        jdbcTemplate.update("DELETE FROM requests");
+        jdbcTemplate.update("DELETE FROM users");
+        userId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR users_seq", Long.class);
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'user', 'user@mail.ru')", userId);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaUntilUserWrites() throws Exception {
+        double replica = routed("replica", "available");
+        mvc.perform(get("/requests").header("X-Sharer-User-Id", userId)).andExpect(status().isOk());
+        assertEquals(replica + 1, routed("replica", "available"));
+
+        mvc.perform(post("/items").header("X-Sharer-User-Id", userId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true}"))
+                .andExpect(status().isOk());
+        double sticky = routed("primary", "read_your_writes");
+        mvc.perform(get("/requests").header("X-Sharer-User-Id", userId)).andExpect(status().isOk());
+        assertEquals(sticky + 1, routed("primary", "read_your_writes"));
+        assertEquals(replica + 1, routed("replica", "available"));
+    }
+
+    @Test
+    void streamedBodyRoutesLikeItsRequest() throws Exception {
+        double replica = routed("replica", "available");
+        streamUsers();
+        assertEquals(replica + 1, routed("replica", "available"));
+
+        mvc.perform(post("/items").header("X-Sharer-User-Id", userId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true}"))
+                .andExpect(status().isOk());
+        // Тело ответа читает базу в другом потоке уже после выхода запроса из фильтра
+        double sticky = routed("primary", "read_your_writes");
+        streamUsers();
+        assertEquals(sticky + 1, routed("primary", "read_your_writes"));
+        assertEquals(replica + 1, routed("replica", "available"));
+    }
+
+    @Test
+    void availabilityScheduleIsReadFromPrimary() throws Exception {
+        long itemId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR items_seq", Long.class);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, owner_id, available)"
+                + " VALUES (?, 'Дрель', 'Простая дрель', ?, TRUE)", itemId, userId);
+
+        // Расписание бронирований, которое потом сбрасывается только подтверждением, не читается с реплики
+        double replica = routed("replica", "available");
+        mvc.perform(get("/items/{id}/availability", itemId)).andExpect(status().isOk());
+        assertEquals(replica, routed("replica", "available"));
+    }
+
+    @Test
+    void cachedUserIsLoadedFromPrimary() throws Exception {
+        // Отстающая реплика не должна попасть в кэш на всё время жизни записи
+        double replica = routed("replica", "available");
+        mvc.perform(get("/users/{id}", userId)).andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":" + userId + ",\"name\":\"user\"}"));
+        mvc.perform(get("/users/{id}", userId)).andExpect(status().isOk());
+        assertEquals(replica, routed("replica", "available"));
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToPrimary() throws Exception {
+        replicaLagMonitor.markUnavailable(new SQLException("test"));
+        double lagging = routed("primary", "lag");
+        mvc.perform(get("/requests").header("X-Sharer-User-Id", userId)).andExpect(status().isOk());
+        assertEquals(lagging + 1, routed("primary", "lag"));
+    }
+
+    @Test
+    void replicaConnectionsNeedAdmission() throws Exception {
+        AdmissionControlDataSource admission = assertInstanceOf(AdmissionControlDataSource.class, dataSource);
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, admission.getTargetDataSource());
+
+        double replica = routed("replica", "available");
+        long admitted = meterRegistry.get("shareit.db.admission.wait").timer().count();
+        mvc.perform(get("/requests").header("X-Sharer-User-Id", userId)).andExpect(status().isOk());
+        assertEquals(replica + 1, routed("replica", "available"));
+        assertEquals(admitted + 1, meterRegistry.get("shareit.db.admission.wait").timer().count());
+    }
+
+    private void streamUsers() throws Exception {
+        MvcResult result = mvc.perform(get("/users").param("stream", "true").header("X-Sharer-User-Id", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":" + userId + ",\"name\":\"user\"}]"));
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("shareit.db.replica.routing").tags("target", target, "reason", reason)
+                .counter().count();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запоминает SQL, который Hibernate готовит в текущем потоке, чтобы тесты проверяли состав запросов,
+ * а не только их число.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+    private static final ThreadLocal<List<String>> RECORDED = ThreadLocal.withInitial(ArrayList::new);
+
+    static void clear() {
+        RECORDED.get().clear();
+    }
+
+    static List<String> recorded() {
+        return List.copyOf(RECORDED.get());
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RECORDED.get().add(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ApiTestSupport;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookingApprovalTests extends ApiTestSupport {
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void approvalIsConditionalUpdateWithoutLocking() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        long waitingId = insert("bookings", Map.of("start_date", start, "end_date", start.plusDays(1),
+                "item_id", itemId, "booker_id", bookerId, "status", "WAITING"));
+
+        // Чтение бронирования, условная смена статуса, загрузка расписания вещи в индекс интервалов, счётчики вещи,
+        // попытка занять место следующего бронирования вещи и запись в outbox
+        List<String> statements = statements(patch("/bookings/{id}", waitingId).param("approved", "true")
+                .header("X-Sharer-User-Id", ownerId));
+        assertEquals(6, statements.size(), statements.toString());
+        assertTrue(statements.stream().noneMatch(sql -> sql.toLowerCase().contains("for update")),
+                statements.toString());
+        assertTrue(statements.get(statements.size() - 1).startsWith("insert into outbox"), statements.toString());
+        assertEquals(Map.of("STATUS", "APPROVED", "VERSION", 1L), jdbcTemplate.queryForMap(
+                "SELECT status, version FROM bookings WHERE id = ?", waitingId));
+    }
+
+    @Test
+    void overlappingApprovalIsRolledBack() throws Exception {
+        LocalDateTime start = now.plusDays(30);
+        long approvedId = insert("bookings", Map.of("start_date", start, "end_date", start.plusDays(2),
+                "item_id", itemId, "booker_id", bookerId, "status", "WAITING"));
+        long overlappingId = insert("bookings", Map.of("start_date", start.plusDays(1), "end_date", start.plusDays(3),
+                "item_id", itemId, "booker_id", otherBookerId, "status", "WAITING"));
+        double overlaps = conflicts("overlap");
+
+        perform(patch("/bookings/{id}", approvedId).param("approved", "true").header("X-Sharer-User-Id", ownerId));
+        mvc.perform(patch("/bookings/{id}", overlappingId).param("approved", "true")
+                .header("X-Sharer-User-Id", ownerId)).andExpect(status().isConflict());
+
+        assertEquals(overlaps + 1, conflicts("overlap"));
+        assertEquals(Map.of("STATUS", "WAITING", "VERSION", 0L), jdbcTemplate.queryForMap(
+                "SELECT status, version FROM bookings WHERE id = ?", overlappingId));
+    }
+
+    @Test
+    void concurrentApprovalOfSameBookingIsNotReportedAsOverlap() throws Exception {
+        LocalDateTime start = now.plusDays(30);
+        long waitingId = insert("bookings", Map.of("start_date", start, "end_date", start.plusDays(1),
+                "item_id", itemId, "booker_id", bookerId, "status", "WAITING"));
+        double overlaps = conflicts("overlap");
+
+        // Первое подтверждение сменило статус и заняло интервал, но ещё не зафиксировано
+        CompletableFuture<MvcResult> second = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.update("UPDATE bookings SET status = 'APPROVED', version = version + 1 WHERE id = ?",
+                    waitingId);
+            bookingIntervalIndex.reserve(itemId, new BookingInterval(waitingId, start, start.plusDays(1)));
+            CompletableFuture<MvcResult> approval = CompletableFuture.supplyAsync(() -> approve(waitingId));
+            sleep();
+            assertFalse(approval.isDone());
+            return approval;
+        });
+
+        MvcResult result = second.get(5, TimeUnit.SECONDS);
+        assertEquals(409, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        assertEquals(overlaps, conflicts("overlap"));
+        assertEquals(Map.of("STATUS", "APPROVED", "VERSION", 1L), jdbcTemplate.queryForMap(
+                "SELECT status, version FROM bookings WHERE id = ?", waitingId));
+    }
+
+    private MvcResult approve(long id) {
+        try {
+            return mvc.perform(patch("/bookings/{id}", id).param("approved", "true")
+                    .header("X-Sharer-User-Id", ownerId)).andReturn();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double conflicts(String reason) {
+        return meterRegistry.counter("shareit.booking.approve.conflicts", "reason", reason).count();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
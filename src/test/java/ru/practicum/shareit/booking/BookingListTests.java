@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.ApiTestSupport;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookingListTests extends ApiTestSupport {
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    @Test
+    void bookingListsDoNotLoadAssociationsPerRow() throws Exception {
+        // Флаг архива пользователя и бронирования вместе с вещами и авторами
+        JsonNode byBooker = assertStatements(2, get("/bookings").header("X-Sharer-User-Id", bookerId));
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM / 2, byBooker.size());
+        for (JsonNode booking : byBooker) {
+            assertEquals(bookerId, booking.at("/booker/id").asLong());
+            assertEquals("booker", booking.at("/booker/name").asText());
+            assertTrue(itemIds.contains(booking.at("/item/id").asLong()));
+            assertTrue(booking.at("/item/name").asText().startsWith("Дрель "));
+        }
+        JsonNode byOwner = assertStatements(2, get("/bookings/owner").header("X-Sharer-User-Id", ownerId));
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM, byOwner.size());
+        // Флаг архива не кэшируется и читается при каждом запросе
+        JsonNode past = assertStatements(2, get("/bookings/owner").param("state", "PAST")
+                .header("X-Sharer-User-Id", ownerId));
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM / 2, past.size());
+        for (JsonNode booking : past) {
+            assertTrue(LocalDateTime.parse(booking.get("end").asText()).isBefore(LocalDateTime.now()));
+        }
+    }
+
+    @Test
+    void withoutPagingParamsAllBookingsAreReturned() throws Exception {
+        MvcResult result = perform(get("/bookings/owner").header("X-Sharer-User-Id", ownerId));
+
+        assertNull(result.getResponse().getHeader(NEXT_CURSOR));
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM bookings ORDER BY start_date DESC, id DESC",
+                Long.class);
+        assertEquals(expected, ids(objectMapper.readTree(result.getResponse().getContentAsString())));
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM / 2,
+                json(get("/bookings").header("X-Sharer-User-Id", bookerId)).size());
+    }
+
+    @Test
+    void pagesFollowCursorWithoutGapsOrDuplicates() throws Exception {
+        // Одинаковое начало у бронирований разных вещей: порядок внутри таких групп задаёт идентификатор
+        jdbcTemplate.update("UPDATE bookings SET start_date = ?, end_date = ?", now.plusDays(1), now.plusDays(2));
+        List<Long> all = ids(json(get("/bookings/owner").header("X-Sharer-User-Id", ownerId)));
+
+        List<Long> paged = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/bookings/owner").param("size", "5")
+                    .header("X-Sharer-User-Id", ownerId);
+            MvcResult result = perform(cursor == null ? request : request.param("cursor", cursor));
+            List<Long> page = ids(objectMapper.readTree(result.getResponse().getContentAsString()));
+            sizes.add(page.size());
+            paged.addAll(page);
+            cursor = result.getResponse().getHeader(NEXT_CURSOR);
+        } while (cursor != null);
+
+        assertEquals(List.of(5, 5, 2), sizes);
+        assertEquals(all, paged);
+        assertEquals(all.stream().sorted(Comparator.reverseOrder()).toList(), paged);
+    }
+
+    @Test
+    void cursorWithoutSizeUsesDefaultPage() throws Exception {
+        MvcResult first = perform(get("/bookings/owner").param("size", "1").header("X-Sharer-User-Id", ownerId));
+        String cursor = first.getResponse().getHeader(NEXT_CURSOR);
+        assertNotNull(cursor);
+
+        MvcResult rest = perform(get("/bookings/owner").param("cursor", cursor).header("X-Sharer-User-Id", ownerId));
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM - 1,
+                objectMapper.readTree(rest.getResponse().getContentAsString()).size());
+        assertNull(rest.getResponse().getHeader(NEXT_CURSOR));
+    }
+
+    @Test
+    void pageSizeIsLimited() throws Exception {
+        mvc.perform(get("/bookings").param("size", "101").header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/bookings").param("cursor", LocalDateTime.now().toString())
+                .header("X-Sharer-User-Id", bookerId)).andExpect(status().isBadRequest());
+    }
+}
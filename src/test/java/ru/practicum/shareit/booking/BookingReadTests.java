@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.ApiTestSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookingReadTests extends ApiTestSupport {
+
+    @Test
+    void bookingByIdIsVersionCheckAndOneStatement() throws Exception {
+        JsonNode booking = assertStatements(2, get("/bookings/{id}", bookingId).header("X-Sharer-User-Id", ownerId));
+        assertEquals(bookingId, booking.get("id").asLong());
+        assertEquals("APPROVED", booking.get("status").asText());
+        assertEquals(itemId, booking.at("/item/id").asLong());
+        assertEquals("Дрель " + (ITEMS - 1), booking.at("/item/name").asText());
+        assertEquals(otherBookerId, booking.at("/booker/id").asLong());
+    }
+
+    @Test
+    void unchangedBookingIsRevalidatedWithOneStatement() throws Exception {
+        assertNotModified(get("/bookings/{id}", bookingId).header("X-Sharer-User-Id", ownerId));
+        assertNotModified(get("/bookings/{id}", bookingId).header("X-Sharer-User-Id", otherBookerId));
+    }
+
+    @Test
+    void bookingIsHiddenFromOtherUsers() throws Exception {
+        mvc.perform(get("/bookings/{id}", bookingId).header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isForbidden());
+    }
+}
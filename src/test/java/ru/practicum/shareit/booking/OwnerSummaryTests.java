@@ -0,0 +1,105 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.ApiTestSupport;
+import ru.practicum.shareit.item.BookingCountsSweepProperties;
+import ru.practicum.shareit.item.BookingCountsSweeper;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class OwnerSummaryTests extends ApiTestSupport {
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void summaryCountsBookingsLoadedOutsideApplication() throws Exception {
+        // Владелец и одна выборка счётчиков из строк вещей
+        JsonNode summary = assertStatements(2, get("/bookings/owner/summary").header("X-Sharer-User-Id", ownerId));
+
+        int half = ITEMS * BOOKINGS_PER_ITEM / 2;
+        assertCounts(summary.get("bookings"), ITEMS * BOOKINGS_PER_ITEM, 0, half, half, 0, 0);
+        assertEquals(itemIds, summary.get("items").findValues("itemId").stream().map(JsonNode::asLong).toList());
+        for (JsonNode item : summary.get("items")) {
+            assertCounts(item.get("bookings"), BOOKINGS_PER_ITEM, 0, 2, 2, 0, 0);
+            // Четыре дня брони на отрезке от начала первого до окончания последнего бронирования в семь дней
+            assertEquals(4.0 / 7, item.get("utilization").asDouble(), 1e-9);
+        }
+    }
+
+    @Test
+    void newAndApprovedBookingsChangeCounters() throws Exception {
+        LocalDateTime start = now.plusDays(30).truncatedTo(ChronoUnit.SECONDS);
+        JsonNode created = json(post("/bookings").header("X-Sharer-User-Id", bookerId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemId\":" + itemId + ",\"start\":\"" + start + "\",\"end\":\"" +
+                        start.plusDays(1) + "\"}"));
+
+        JsonNode item = summaryOf(itemId);
+        assertCounts(item.get("bookings"), BOOKINGS_PER_ITEM + 1, 0, 2, 3, 1, 0);
+        assertEquals(4.0 / 7, item.get("utilization").asDouble(), 1e-9);
+
+        perform(patch("/bookings/{id}", created.get("id").asLong()).param("approved", "true")
+                .header("X-Sharer-User-Id", ownerId));
+        // Владелец уже в кэше
+        JsonNode summary = assertStatements(1, get("/bookings/owner/summary").header("X-Sharer-User-Id", ownerId));
+        item = summary.get("items").get(ITEMS - 1);
+        assertCounts(item.get("bookings"), BOOKINGS_PER_ITEM + 1, 0, 2, 3, 0, 0);
+        Map<String, Object> booked = jdbcTemplate.queryForMap(
+                "SELECT booked_from, booked_until FROM items WHERE id = ?", itemId);
+        long span = Duration.between(((Timestamp) booked.get("BOOKED_FROM")).toLocalDateTime(),
+                ((Timestamp) booked.get("BOOKED_UNTIL")).toLocalDateTime()).toSeconds();
+        assertEquals(start.plusDays(1), ((Timestamp) booked.get("BOOKED_UNTIL")).toLocalDateTime());
+        assertEquals((double) Duration.ofDays(5).toSeconds() / span, item.get("utilization").asDouble(), 1e-9);
+    }
+
+    @Test
+    void sweeperRecountsStartedBookingsInBatches() throws Exception {
+        // Следующее бронирование первой вещи уже началось, счётчики ещё считают его будущим
+        long startedItemId = itemIds.get(0);
+        jdbcTemplate.update("UPDATE bookings SET start_date = ? WHERE item_id = ? AND start_date BETWEEN ? AND ?",
+                now.minusHours(1), startedItemId, now, now.plusDays(1));
+        jdbcTemplate.update("UPDATE items SET bookings_next_transition = ?", now.minusMinutes(1));
+
+        BookingCountsSweepProperties properties = new BookingCountsSweepProperties();
+        properties.setBatchSize(1);
+        new BookingCountsSweeper(itemRepository, properties, transactionManager).sweep();
+
+        assertCounts(summaryOf(startedItemId).get("bookings"), BOOKINGS_PER_ITEM, 1, 2, 1, 0, 0);
+        for (long id : itemIds.subList(1, ITEMS)) {
+            assertCounts(summaryOf(id).get("bookings"), BOOKINGS_PER_ITEM, 0, 2, 2, 0, 0);
+        }
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE bookings_next_transition <= ?", Integer.class, now));
+    }
+
+    private JsonNode summaryOf(long itemId) throws Exception {
+        for (JsonNode item : json(get("/bookings/owner/summary").header("X-Sharer-User-Id", ownerId)).get("items")) {
+            if (item.get("itemId").asLong() == itemId) {
+                return item;
+            }
+        }
+        throw new AssertionError("Вещи " + itemId + " нет в сводке");
+    }
+
+    private void assertCounts(JsonNode counts, long all, long current, long past, long future, long waiting,
+                              long rejected) throws Exception {
+        assertEquals(objectMapper.readTree(String.format("{\"all\":%d,\"current\":%d,\"past\":%d,\"future\":%d," +
+                "\"waiting\":%d,\"rejected\":%d}", all, current, past, future, waiting, rejected)), counts);
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.booking.archive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.ApiTestSupport;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.config.JobLock;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class BookingArchiveTests extends ApiTestSupport {
+    private static final String COLUMNS = "id, start_date, end_date, item_id, booker_id, status, version";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JobLock jobLock;
+
+    private List<Map<String, Object>> finished;
+
+    @BeforeEach
+    void setUpFinished() {
+        finished = jdbcTemplate.queryForList("SELECT " + COLUMNS + " FROM bookings WHERE end_date < ? ORDER BY id",
+                LocalDateTime.now());
+    }
+
+    @Test
+    void archiverMovesFinishedBookingsInBatches() {
+        archive();
+
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM / 2, finished.size());
+        assertEquals(finished, jdbcTemplate.queryForList("SELECT " + COLUMNS + " FROM bookings_archive ORDER BY id"));
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM / 2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE end_date >= ?", Integer.class, now));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE end_date < ?", Integer.class, now));
+        assertEquals(List.of(ownerId, bookerId, otherBookerId), jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE bookings_archived ORDER BY id", Long.class));
+    }
+
+    @Test
+    void waitingBookingsAreNotArchived() {
+        long waitingId = insert("bookings", Map.of("start_date", now.minusDays(3), "end_date", now.minusDays(2),
+                "item_id", itemId, "booker_id", otherBookerId, "status", "WAITING"));
+        archive();
+
+        assertEquals(List.of(waitingId), jdbcTemplate.queryForList(
+                "SELECT id FROM bookings WHERE end_date < ?", Long.class, now));
+        assertEquals(finished.size(), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_archive",
+                Integer.class));
+    }
+
+    @Test
+    void instanceWithoutLockSkipsArchiving() {
+        BookingArchiver archiver = archiver();
+
+        // Пока блокировку держит другой экземпляр, этот бронирования не переносит
+        assertTrue(jobLock.runExclusively("booking-archive", archiver::archive));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_archive", Integer.class));
+
+        archiver.archive();
+        assertEquals(finished.size(), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_archive",
+                Integer.class));
+    }
+
+    @Test
+    void listsReadArchiveOnlyForPastBookings() throws Exception {
+        List<Long> before = ids(json(get("/bookings").header("X-Sharer-User-Id", bookerId)));
+        archive();
+
+        // Флаг архива пользователя, рабочая таблица и архив
+        JsonNode all = assertStatements(3, get("/bookings").header("X-Sharer-User-Id", bookerId));
+        assertEquals(before, ids(all));
+        for (JsonNode booking : all) {
+            assertEquals(bookerId, booking.at("/booker/id").asLong());
+            assertEquals("APPROVED", booking.get("status").asText());
+            assertTrue(itemIds.contains(booking.at("/item/id").asLong()));
+        }
+        JsonNode past = assertStatements(3, get("/bookings").param("state", "PAST")
+                .header("X-Sharer-User-Id", bookerId));
+        assertEquals(archivedIds(bookerId), ids(past).stream().sorted().toList());
+
+        // Текущие и будущие бронирования в архив не попадают, и архив для них не читается
+        JsonNode future = assertStatements(2, get("/bookings").param("state", "FUTURE")
+                .header("X-Sharer-User-Id", bookerId));
+        assertEquals(before.size() - past.size(), future.size());
+        assertEquals(0, assertStatements(2, get("/bookings").param("state", "CURRENT")
+                .header("X-Sharer-User-Id", bookerId)).size());
+
+        List<Long> byOwner = ids(json(get("/bookings/owner").param("state", "PAST")
+                .header("X-Sharer-User-Id", ownerId)));
+        assertEquals(finished.stream().map(row -> ((Number) row.get("ID")).longValue()).toList(),
+                byOwner.stream().sorted().toList());
+    }
+
+    @Test
+    void archivedBookingIsReadAndAllowsComment() throws Exception {
+        archive();
+        long archivedId = archivedIds(bookerId).get(0);
+        long archivedItemId = jdbcTemplate.queryForObject("SELECT item_id FROM bookings_archive WHERE id = ?",
+                Long.class, archivedId);
+
+        JsonNode booking = json(get("/bookings/{id}", archivedId).header("X-Sharer-User-Id", bookerId));
+        assertEquals(archivedId, booking.get("id").asLong());
+        assertEquals(archivedItemId, booking.at("/item/id").asLong());
+        assertEquals("APPROVED", booking.get("status").asText());
+
+        JsonNode comment = json(post("/items/{id}/comment", archivedItemId).header("X-Sharer-User-Id", bookerId)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"text\":\"Снова отлично\"}"));
+        assertEquals("Снова отлично", comment.get("text").asText());
+        assertEquals("booker", comment.get("authorName").asText());
+    }
+
+    private void archive() {
+        archiver().archive();
+    }
+
+    private BookingArchiver archiver() {
+        BookingArchiveProperties properties = new BookingArchiveProperties();
+        properties.setRetention(Duration.ZERO);
+        properties.setBatchSize(4);
+        return new BookingArchiver(bookingRepository, archivedBookingRepository, itemRepository, userRepository,
+                properties, transactionManager, jobLock);
+    }
+
+    private List<Long> archivedIds(long bookerId) {
+        return jdbcTemplate.queryForList("SELECT id FROM bookings_archive WHERE booker_id = ? ORDER BY id",
+                Long.class, bookerId);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking.events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.ApiTestSupport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class BookingEventsTests extends ApiTestSupport {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Autowired
+    private BookingEventProperties properties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void subscribersReceiveStatusChange() throws Exception {
+        MvcResult booker = subscribe(bookerId);
+        MvcResult owner = subscribe(ownerId);
+        MvcResult other = subscribe(otherBookerId);
+        long waitingId = insertWaiting();
+
+        perform(patch("/bookings/{id}", waitingId).param("approved", "true").header("X-Sharer-User-Id", ownerId));
+
+        String expected = "id:" + waitingId + ":APPROVED\nevent:booking\ndata:{\"id\":" + waitingId;
+        await(() -> content(booker).contains(expected));
+        await(() -> content(owner).contains(expected));
+        assertTrue(content(booker).contains("\"status\":\"APPROVED\""), content(booker));
+        assertFalse(content(other).contains("event:booking"), content(other));
+    }
+
+    @Test
+    void oldestSubscriptionIsClosedOverUserLimit() throws Exception {
+        double open = subscriptions();
+        List<MvcResult> results = new ArrayList<>();
+        for (int i = 0; i <= properties.getMaxSubscriptionsPerUser(); i++) {
+            results.add(subscribe(bookerId));
+        }
+
+        // Самая старая подписка завершена без ошибки, остальные открыты
+        MvcResult oldest = results.get(0);
+        assertNull(oldest.getAsyncResult(TIMEOUT.toMillis()));
+        assertEquals(open + properties.getMaxSubscriptionsPerUser(), subscriptions());
+
+        long waitingId = insertWaiting();
+        perform(patch("/bookings/{id}", waitingId).param("approved", "true").header("X-Sharer-User-Id", ownerId));
+        await(() -> content(results.get(results.size() - 1)).contains("id:" + waitingId + ":APPROVED"));
+        assertFalse(content(oldest).contains("event:booking"), content(oldest));
+    }
+
+    @Test
+    void disconnectedSubscriptionIsRemoved() throws Exception {
+        double open = subscriptions();
+        MvcResult result = subscribe(bookerId);
+        assertEquals(open + 1, subscriptions());
+
+        // Контейнер сообщает об обрыве соединения слушателям асинхронного запроса
+        MockAsyncContext context = (MockAsyncContext) result.getRequest().getAsyncContext();
+        AsyncEvent event = new AsyncEvent(context, new IOException("Broken pipe"));
+        for (AsyncListener listener : List.copyOf(context.getListeners())) {
+            listener.onError(event);
+        }
+
+        assertEquals(open, subscriptions());
+    }
+
+    @Test
+    void failedSendCompletesSubscription() throws Exception {
+        double open = subscriptions();
+        MvcResult result = subscribe(bookerId);
+        // Клиент пропал незаметно для контейнера: ошибку выдаёт только запись в ответ
+        result.getResponse().setOutputStreamAccessAllowed(false);
+
+        long waitingId = insertWaiting();
+        perform(patch("/bookings/{id}", waitingId).param("approved", "true").header("X-Sharer-User-Id", ownerId));
+
+        assertInstanceOf(IllegalStateException.class, result.getAsyncResult(TIMEOUT.toMillis()));
+        assertEquals(open, subscriptions());
+    }
+
+    private MvcResult subscribe(long userId) throws Exception {
+        return mvc.perform(get("/bookings/events").header("X-Sharer-User-Id", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private long insertWaiting() {
+        LocalDateTime start = now.plusDays(30);
+        return insert("bookings", Map.of("start_date", start, "end_date", start.plusDays(1),
+                "item_id", itemId, "booker_id", bookerId, "status", "WAITING"));
+    }
+
+    private double subscriptions() {
+        return meterRegistry.get("shareit.booking-events.subscriptions").gauge().value();
+    }
+
+    private static String content(MvcResult result) {
+        return new String(result.getResponse().getContentAsByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Событие не получено");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTests {
+    private static final long ITEM_ID = 1;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final List<BookingInterval> stored = new ArrayList<>();
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private final BookingInterval approved = new BookingInterval(1, start, start.plusDays(2));
+    private final BookingInterval overlapping = new BookingInterval(2, start.plusDays(1), start.plusDays(3));
+    private final BookingInterval later = new BookingInterval(3, start.plusDays(5), start.plusDays(6));
+
+    @BeforeEach
+    void setUp() {
+        when(bookingRepository.findIntervalsByItemId(eq(ITEM_ID), eq(BookingStatus.APPROVED), any()))
+                .thenAnswer(invocation -> List.copyOf(stored));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reservationIsVisibleOnlyAfterCommit() {
+        BookingIntervalIndex index = index(Duration.ofMinutes(1));
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(ITEM_ID, approved);
+
+        assertEquals(Optional.empty(), index.findOverlap(ITEM_ID, start, start.plusDays(1)));
+        // Параллельное подтверждение на этом экземпляре видит незафиксированный интервал
+        assertThrows(ConflictException.class, () -> index.reserve(ITEM_ID, overlapping));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(Optional.of(approved), index.findOverlap(ITEM_ID, start, start.plusDays(1)));
+        assertEquals(List.of(approved), index.findOverlapping(ITEM_ID, start, start.plusDays(10)));
+        verify(bookingRepository, times(1)).findIntervalsByItemId(eq(ITEM_ID), eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void rolledBackReservationIsReleased() {
+        BookingIntervalIndex index = index(Duration.ofMinutes(1));
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(ITEM_ID, approved);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        index.reserve(ITEM_ID, overlapping);
+        assertThrows(ConflictException.class, () -> index.reserve(ITEM_ID, approved));
+        index.reserve(ITEM_ID, later);
+        assertEquals(List.of(overlapping, later), index.findOverlapping(ITEM_ID, start, start.plusDays(10)));
+    }
+
+    @Test
+    void reservedIntervalIsNotCachedBeforeCommit() {
+        BookingIntervalIndex index = index(Duration.ofMinutes(1));
+        // Статус уже сменён в транзакции подтверждения, и загрузка расписания видит сам интервал
+        stored.add(approved);
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(ITEM_ID, approved);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        stored.clear();
+
+        assertEquals(Optional.empty(), index.findOverlap(ITEM_ID, start, start.plusDays(1)));
+        assertEquals(List.of(), index.findOverlapping(ITEM_ID, start, start.plusDays(10)));
+    }
+
+    @Test
+    void availabilityDoesNotFillScheduleForApprovals() {
+        BookingIntervalIndex index = index(Duration.ofMinutes(1));
+        assertEquals(List.of(), index.findOverlapping(ITEM_ID, start, start.plusDays(10)));
+
+        stored.add(approved);
+        assertEquals(Optional.of(approved), index.findOverlap(ITEM_ID, start, start.plusDays(1)));
+        assertEquals(List.of(approved), index.findOverlapping(ITEM_ID, start, start.plusDays(10)));
+    }
+
+    @Test
+    void committedReservationResetsAvailability() {
+        BookingIntervalIndex index = index(Duration.ofMinutes(1));
+        assertEquals(List.of(), index.findOverlapping(ITEM_ID, start, start.plusDays(10)));
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(ITEM_ID, approved);
+
+        assertEquals(List.of(), index.findOverlapping(ITEM_ID, start, start.plusDays(10)));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(List.of(approved), index.findOverlapping(ITEM_ID, start, start.plusDays(10)));
+    }
+
+    @Test
+    void scheduleIsReloadedAfterTtl() {
+        BookingIntervalIndex cached = index(Duration.ofMinutes(1));
+        BookingIntervalIndex expiring = index(Duration.ZERO);
+        assertEquals(Optional.empty(), cached.findOverlap(ITEM_ID, start, start.plusDays(1)));
+        assertEquals(Optional.empty(), expiring.findOverlap(ITEM_ID, start, start.plusDays(1)));
+
+        // Подтверждение на другом экземпляре
+        stored.add(approved);
+        assertEquals(Optional.empty(), cached.findOverlap(ITEM_ID, start, start.plusDays(1)));
+        assertEquals(Optional.of(approved), expiring.findOverlap(ITEM_ID, start, start.plusDays(1)));
+    }
+
+    private BookingIntervalIndex index(Duration ttl) {
+        BookingIntervalProperties properties = new BookingIntervalProperties();
+        properties.setTtl(ttl);
+        return new BookingIntervalIndex(bookingRepository, properties, mock(PlatformTransactionManager.class));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlDataSourceTests {
+    private final DataSource target = mock(DataSource.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionControlDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new AdmissionControlDataSource(target, 1, Duration.ofMillis(50), meterRegistry);
+    }
+
+    @Test
+    void secondConnectionOfThreadTakesNoPermit() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(0, available());
+
+        second.close();
+        assertEquals(0, available());
+        // Повторное закрытие не возвращает разрешение раньше времени
+        second.close();
+        assertEquals(0, available());
+        first.close();
+        assertEquals(1, available());
+    }
+
+    @Test
+    void otherThreadWaitsForPermit() throws Exception {
+        Connection connection = dataSource.getConnection();
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> CompletableFuture.supplyAsync(this::connect).get());
+        assertInstanceOf(SQLTransientConnectionException.class, e.getCause().getCause());
+        assertEquals(1, meterRegistry.get("shareit.db.admission.rejected").counter().count());
+
+        connection.close();
+        CompletableFuture.supplyAsync(this::connect).get().close();
+        assertEquals(1, available());
+    }
+
+    @Test
+    void connectionClosedByOtherThreadReleasesPermit() throws Exception {
+        Connection connection = dataSource.getConnection();
+        CompletableFuture.runAsync(() -> close(connection)).get();
+        assertEquals(1, available());
+
+        // Счётчик потока закончился вместе с разрешением, новое соединение берёт новое разрешение
+        Connection next = dataSource.getConnection();
+        assertEquals(0, available());
+        next.close();
+        assertEquals(1, available());
+    }
+
+    @Test
+    void failedConnectionReleasesPermit() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("пул исчерпан"));
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1, available());
+    }
+
+    private double available() {
+        return meterRegistry.get("shareit.db.admission.available").gauge().value();
+    }
+
+    private Connection connect() {
+        try {
+            return dataSource.getConnection();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.ApiTestSupport;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.archive.BookingArchiveProperties;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.config.JobLock;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+class BookingSummaryTests extends ApiTestSupport {
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JobLock jobLock;
+
+    @Test
+    void staleBookingSummaryIsReplacedByOneBookingPerItem() throws Exception {
+        LocalDateTime thisMoment = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE items SET next_booking_start = ?", thisMoment.minusMinutes(1));
+
+        // Ревизия для ETag, владелец, вещи, последние и следующие бронирования одним запросом каждые и отзывы
+        JsonNode items = assertStatements(6, get("/items").header("X-Sharer-User-Id", ownerId));
+        assertEquals(2 * ITEMS, statistics.getEntityStatistics(Booking.class.getName()).getLoadCount());
+        assertEquals(itemIds, ids(items));
+        for (JsonNode item : items) {
+            List<Long> bookings = bookingIds(item.get("id").asLong());
+            assertEquals(bookings.get(1), item.at("/lastBooking/id").asLong());
+            assertEquals(bookings.get(2), item.at("/nextBooking/id").asLong());
+        }
+    }
+
+    @Test
+    void bookingsEndingTogetherAreOrderedById() throws Exception {
+        List<Map<String, Object>> bookings = jdbcTemplate.queryForList(
+                "SELECT id, start_date, end_date FROM bookings WHERE item_id = ? ORDER BY start_date", itemId);
+        LocalDateTime lastEnd = ((Timestamp) bookings.get(1).get("END_DATE")).toLocalDateTime();
+        LocalDateTime nextEnd = ((Timestamp) bookings.get(2).get("END_DATE")).toLocalDateTime();
+        // Бронирования с большим id заканчиваются одновременно с последним и следующим
+        long lastTie = insert("bookings", Map.of("start_date", lastEnd.minusHours(1), "end_date", lastEnd,
+                "item_id", itemId, "booker_id", bookerId, "status", "APPROVED"));
+        long nextTie = insert("bookings", Map.of("start_date", nextEnd.minusHours(1), "end_date", nextEnd,
+                "item_id", itemId, "booker_id", bookerId, "status", "APPROVED"));
+        long expectedNext = (Long) bookings.get(2).get("ID");
+        assertTrue(lastTie > (Long) bookings.get(1).get("ID") && nextTie > expectedNext);
+        itemService.refreshAllSummaries(now);
+
+        // Сводка в строке вещи, запрос одной вещи и пересчёт устаревшей сводки выбирают одни и те же бронирования
+        assertEquals(Map.of("LAST_BOOKING_ID", lastTie, "NEXT_BOOKING_ID", expectedNext), jdbcTemplate.queryForMap(
+                "SELECT last_booking_id, next_booking_id FROM items WHERE id = ?", itemId));
+        JsonNode item = json(get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId));
+        assertEquals(lastTie, item.at("/lastBooking/id").asLong());
+        assertEquals(expectedNext, item.at("/nextBooking/id").asLong());
+        jdbcTemplate.update("UPDATE items SET next_booking_start = ? WHERE id = ?", now.minusMinutes(1), itemId);
+        JsonNode stale = json(get("/items").header("X-Sharer-User-Id", ownerId)).get(ITEMS - 1);
+        assertEquals(itemId, stale.get("id").asLong());
+        assertEquals(lastTie, stale.at("/lastBooking/id").asLong());
+        assertEquals(expectedNext, stale.at("/nextBooking/id").asLong());
+    }
+
+    @Test
+    void rejectedBookingIsRemovedFromSummary() throws Exception {
+        JsonNode before = json(get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId));
+        LocalDateTime start = now.plusHours(2);
+        long waitingId = insert("bookings", Map.of("start_date", start, "end_date", start.plusHours(1),
+                "item_id", itemId, "booker_id", bookerId, "status", "WAITING"));
+        // Сводка, записанная в обход подтверждения, ссылается на ожидающее бронирование
+        jdbcTemplate.update("UPDATE items SET next_booking_id = ?, next_booking_start = ?, next_booking_end = ? " +
+                "WHERE id = ?", waitingId, start, start.plusHours(1), itemId);
+        long revision = itemsRevision();
+
+        perform(patch("/bookings/{id}", waitingId).param("approved", "false").header("X-Sharer-User-Id", ownerId));
+
+        JsonNode after = json(get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId));
+        assertEquals(before.get("nextBooking"), after.get("nextBooking"));
+        assertEquals(before.at("/nextBooking/id").asLong(), jdbcTemplate.queryForObject(
+                "SELECT next_booking_id FROM items WHERE id = ?", Long.class, itemId));
+        assertEquals(revision + 1, itemsRevision());
+    }
+
+    @Test
+    void archivedBookingsAreRemovedFromSummary() throws Exception {
+        JsonNode before = json(get("/items").header("X-Sharer-User-Id", ownerId));
+        for (JsonNode item : before) {
+            assertTrue(item.hasNonNull("lastBooking"));
+        }
+        long revision = itemsRevision();
+
+        // Все закончившиеся бронирования, в том числе последние бронирования вещей, уходят в архив
+        BookingArchiveProperties properties = new BookingArchiveProperties();
+        properties.setRetention(Duration.ZERO);
+        new BookingArchiver(bookingRepository, archivedBookingRepository, itemRepository, userRepository,
+                properties, transactionManager, jobLock).archive();
+
+        JsonNode after = json(get("/items").header("X-Sharer-User-Id", ownerId));
+        assertEquals(ITEMS, after.size());
+        for (int i = 0; i < ITEMS; i++) {
+            assertTrue(after.get(i).get("lastBooking").isNull(), after.get(i).toString());
+            assertEquals(before.get(i).get("nextBooking"), after.get(i).get("nextBooking"));
+        }
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE last_booking_id IS NOT NULL", Long.class));
+        assertEquals(revision + 1, itemsRevision());
+    }
+
+    private List<Long> bookingIds(long itemId) {
+        return jdbcTemplate.queryForList("SELECT id FROM bookings WHERE item_id = ? ORDER BY start_date",
+                Long.class, itemId);
+    }
+
+    private long itemsRevision() {
+        return jdbcTemplate.queryForObject("SELECT items_revision FROM users WHERE id = ?", Long.class, ownerId);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ApiTestSupport;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.item.dto.AvailabilityRange;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+class ItemAvailabilityTests extends ApiTestSupport {
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long waitingId;
+
+    @BeforeEach
+    void setUp() {
+        from = now.plusMinutes(30).truncatedTo(ChronoUnit.SECONDS);
+        to = now.plusDays(10).truncatedTo(ChronoUnit.SECONDS);
+        // Начинается сразу после последнего бронирования набора и склеивается с ним
+        insert("bookings", Map.of("start_date", at(3), "end_date", at(4), "item_id", itemId,
+                "booker_id", bookerId, "status", "APPROVED"));
+        waitingId = insert("bookings", Map.of("start_date", at(6), "end_date", at(7), "item_id", itemId,
+                "booker_id", otherBookerId, "status", "WAITING"));
+    }
+
+    @Test
+    void adjacentBookingsAreMergedAndServedFromMemory() throws Exception {
+        // Вещь и расписание из основной базы
+        JsonNode first = assertStatements(2, availability());
+        JsonNode second = assertStatements(0, availability());
+
+        assertEquals(first, second);
+        assertEquals(itemId, second.get("itemId").asLong());
+        assertEquals(List.of(range(0, 1), range(2, 4)), ranges(second.get("busy")));
+        assertEquals(List.of(new AvailabilityRange(from, stored(at(0))), range(1, 2),
+                new AvailabilityRange(stored(at(4)), to)), ranges(second.get("free")));
+    }
+
+    @Test
+    void approvalResetsCachedAvailability() throws Exception {
+        json(availability());
+        perform(patch("/bookings/{id}", waitingId).param("approved", "true").header("X-Sharer-User-Id", ownerId));
+
+        JsonNode availability = assertStatements(0, availability());
+        assertEquals(List.of(range(0, 1), range(2, 4), range(6, 7)), ranges(availability.get("busy")));
+        assertEquals(List.of(new AvailabilityRange(from, stored(at(0))), range(1, 2), range(4, 6),
+                new AvailabilityRange(stored(at(7)), to)), ranges(availability.get("free")));
+    }
+
+    @Test
+    void pendingApprovalIsNotReportedBusy() throws Exception {
+        // Подтверждение сменило статус и заняло интервал, но ещё не зафиксировано и затем откатывается
+        JsonNode pending = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.update("UPDATE bookings SET status = 'APPROVED', version = version + 1 WHERE id = ?",
+                    waitingId);
+            bookingIntervalIndex.reserve(itemId, new BookingInterval(waitingId, at(6), at(7)));
+            JsonNode result = CompletableFuture.supplyAsync(this::readAvailability).orTimeout(5, TimeUnit.SECONDS)
+                    .join();
+            status.setRollbackOnly();
+            return result;
+        });
+        assertEquals(List.of(range(0, 1), range(2, 4)), ranges(pending.get("busy")));
+
+        // Откаченный интервал не остался в расписании индекса
+        perform(patch("/bookings/{id}", waitingId).param("approved", "true").header("X-Sharer-User-Id", ownerId));
+        assertEquals(List.of(range(0, 1), range(2, 4), range(6, 7)), ranges(json(availability()).get("busy")));
+    }
+
+    private MockHttpServletRequestBuilder availability() {
+        return get("/items/{id}/availability", itemId).param("from", from.toString()).param("to", to.toString());
+    }
+
+    private JsonNode readAvailability() {
+        try {
+            return json(availability());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Начало бронирования набора данных, сдвинутое на заданное число дней от ближайшего.
+     */
+    private LocalDateTime at(int days) {
+        return now.plusDays(days).plusHours(1);
+    }
+
+    private AvailabilityRange range(int startDays, int endDays) {
+        return new AvailabilityRange(stored(at(startDays)), stored(at(endDays)));
+    }
+
+    /**
+     * Время в том виде, в каком его хранит база.
+     */
+    private LocalDateTime stored(LocalDateTime time) {
+        return jdbcTemplate.queryForObject("SELECT CAST(? AS TIMESTAMP)", LocalDateTime.class, time);
+    }
+
+    private static List<AvailabilityRange> ranges(JsonNode array) {
+        List<AvailabilityRange> ranges = new ArrayList<>();
+        array.forEach(node -> ranges.add(new AvailabilityRange(LocalDateTime.parse(node.get("start").asText()),
+                LocalDateTime.parse(node.get("end").asText()))));
+        return ranges;
+    }
+}
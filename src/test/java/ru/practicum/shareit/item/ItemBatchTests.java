@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.ApiTestSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class ItemBatchTests extends ApiTestSupport {
+    private static final int ROWS = 120;
+
+    @Test
+    void batchCreateUsesPooledIdsAndJdbcBatches() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < ROWS; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"name\":\"Пила ").append(i)
+                    .append("\",\"description\":\"Ручная пила\",\"available\":").append(i != 7).append('}');
+        }
+        body.append(",{\"name\":\"\",\"description\":\"Без названия\",\"available\":true}]");
+
+        // Владелец, три обращения к последовательности на 120 идентификаторов, одна вставка,
+        // которая отправляется тремя пакетами, и счётчик изменений владельца.
+        // Строка без названия отклоняется и не вставляется.
+        JsonNode results = assertStatements(6, post("/items/batch").header("X-Sharer-User-Id", ownerId)
+                .contentType(MediaType.APPLICATION_JSON).content(body.toString()));
+
+        assertEquals(ROWS + 1, results.size());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            JsonNode row = results.get(i);
+            assertEquals(i, row.get("index").asInt());
+            assertFalse(row.has("error"));
+            assertEquals("Пила " + i, row.at("/result/name").asText());
+            assertEquals(i != 7, row.at("/result/available").asBoolean());
+            ids.add(row.at("/result/id").asLong());
+        }
+        JsonNode rejected = results.get(ROWS);
+        assertEquals(ROWS, rejected.get("index").asInt());
+        assertFalse(rejected.has("result"));
+        assertTrue(rejected.get("error").asText().length() > 0);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, name, owner_id FROM items WHERE name LIKE 'Пила %' ORDER BY id");
+        assertEquals(ids, rows.stream().map(row -> ((Number) row.get("ID")).longValue()).toList());
+        rows.forEach(row -> assertEquals(ownerId, ((Number) row.get("OWNER_ID")).longValue()));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT items_revision FROM users WHERE id = ?",
+                Long.class, ownerId));
+    }
+}
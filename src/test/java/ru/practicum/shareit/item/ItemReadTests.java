@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.ApiTestSupport;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class ItemReadTests extends ApiTestSupport {
+
+    @Test
+    void itemReadsDoNotDependOnBookingAndCommentCount() throws Exception {
+        // Версия для ETag, вещь с последним и следующим бронированием и последние отзывы
+        JsonNode item = assertStatements(3, get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId));
+        List<Long> bookings = bookingIds(itemId);
+        assertEquals(bookings.get(1), item.at("/lastBooking/id").asLong());
+        assertEquals(otherBookerId, item.at("/lastBooking/bookerId").asLong());
+        assertEquals(bookings.get(2), item.at("/nextBooking/id").asLong());
+        assertEquals(bookerId, item.at("/nextBooking/bookerId").asLong());
+        assertEquals(BOOKINGS_PER_ITEM, item.get("comments").size());
+        assertEquals(BOOKINGS_PER_ITEM, item.get("commentCount").asLong());
+
+        // Ревизия для ETag, владелец, вещи со сводкой бронирований и отзывы всех вещей
+        JsonNode items = assertStatements(4, get("/items").header("X-Sharer-User-Id", ownerId));
+        assertEquals(itemIds, ids(items));
+        for (JsonNode node : items) {
+            List<Long> itemBookings = bookingIds(node.get("id").asLong());
+            assertEquals(itemBookings.get(1), node.at("/lastBooking/id").asLong());
+            assertEquals(itemBookings.get(2), node.at("/nextBooking/id").asLong());
+            assertEquals(BOOKINGS_PER_ITEM, node.get("comments").size());
+        }
+
+        JsonNode found = assertStatements(1, get("/items/search").param("text", "дрель")
+                .header("X-Sharer-User-Id", bookerId));
+        assertEquals(itemIds, ids(found));
+    }
+
+    @Test
+    void streamedItemsMatchListAcrossPages() throws Exception {
+        // Больше одной страницы потоковой выдачи
+        for (int i = 0; i < 100; i++) {
+            insert("items", Map.of("name", "Стремянка " + i, "description", "Лёгкая", "owner_id", ownerId,
+                    "available", true));
+        }
+        JsonNode list = json(get("/items").header("X-Sharer-User-Id", ownerId));
+        JsonNode streamed = json(get("/items").param("stream", "true").header("X-Sharer-User-Id", ownerId));
+
+        assertEquals(ITEMS + 100, streamed.size());
+        assertEquals(list, streamed);
+    }
+
+    @Test
+    void otherUsersDoNotSeeBookingsOfItem() throws Exception {
+        JsonNode item = json(get("/items/{id}", itemId).header("X-Sharer-User-Id", bookerId));
+        assertTrue(item.get("lastBooking").isNull());
+        assertTrue(item.get("nextBooking").isNull());
+        assertEquals(BOOKINGS_PER_ITEM, item.get("comments").size());
+    }
+
+    private List<Long> bookingIds(long itemId) {
+        return jdbcTemplate.queryForList("SELECT id FROM bookings WHERE item_id = ? ORDER BY start_date",
+                Long.class, itemId);
+    }
+}
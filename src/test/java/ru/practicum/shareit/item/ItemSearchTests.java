@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.ApiTestSupport;
+import ru.practicum.shareit.item.search.ItemChangedEvent;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class ItemSearchTests extends ApiTestSupport {
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void textMatchesAsSubstringOfNameOrDescription() throws Exception {
+        assertEquals(itemIds, search("ель"));
+        assertEquals(itemIds, search("ДРЕЛЬ"));
+        assertEquals(List.of(itemIds.get(1)), search("ль 1"));
+        assertEquals(itemIds, search("ая др"));
+        // Слова есть в описании, но не подряд
+        assertEquals(List.of(), search("дрель простая"));
+        assertEquals(List.of(), search("пила"));
+    }
+
+    @Test
+    void shortAndPunctuationQueriesAreServedByIndex() throws Exception {
+        long screwdriver = addItem("Шуруповёрт", "Лучше, чем дрель", true);
+
+        // Последние символы поля тоже начинают триграмму
+        assertEquals(List.of(itemIds.get(1)), search("1"));
+        assertEquals(List.of(itemIds.get(2)), search(" 2"));
+        assertEquals(List.of(screwdriver), search("ёр"));
+        assertEquals(List.of(screwdriver), search(", "));
+        assertEquals(List.of(), search("ъ"));
+    }
+
+    @Test
+    void wholeWordMatchesRankAbovePartialOnes() throws Exception {
+        long saw = addItem("Пила", "Ножовка", true);
+        long pilates = addItem("Пилатес мяч", "Для зала", true);
+        long chain = addItem("Цепная", "Пила по дереву", true);
+        long electric = addItem("Инструмент", "Электропила", true);
+
+        // Целое слово в названии, часть слова в названии и целое слово в описании, часть слова в описании
+        assertEquals(List.of(saw, pilates, chain, electric), search("пила"));
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionAndUnavailableItemsAreSkipped() throws Exception {
+        long screwdriver = addItem("Шуруповёрт", "Лучше, чем дрель", true);
+        addItem("Дрель сломанная", "Не работает", false);
+
+        List<Long> expected = new ArrayList<>(itemIds);
+        expected.add(screwdriver);
+        assertEquals(expected, search("дрель"));
+        assertEquals(List.of(screwdriver), search("чем"));
+    }
+
+    @Test
+    void itemsWrittenPastThisInstanceAppearAfterRefresh() throws Exception {
+        long ladder = insert("items", Map.of("name", "Стремянка", "description", "Три ступени",
+                "owner_id", ownerId, "available", true));
+        assertEquals(List.of(), search("стремянка"));
+
+        itemSearchIndex.refresh();
+        assertEquals(List.of(ladder), search("стремянка"));
+    }
+
+    private long addItem(String name, String description, boolean available) {
+        long id = insert("items", Map.of("name", name, "description", description,
+                "owner_id", ownerId, "available", available));
+        eventPublisher.publishEvent(new ItemChangedEvent(id, name, description, available));
+        return id;
+    }
+
+    private List<Long> search(String text) throws Exception {
+        JsonNode items = json(get("/items/search").param("text", text).header("X-Sharer-User-Id", bookerId));
+        return ids(items);
+    }
+}
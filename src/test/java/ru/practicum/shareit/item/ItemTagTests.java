@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.ApiTestSupport;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class ItemTagTests extends ApiTestSupport {
+
+    @Test
+    void unchangedItemsAreRevalidatedWithOneStatement() throws Exception {
+        assertNotModified(get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId));
+        assertNotModified(get("/items/{id}", itemId).header("X-Sharer-User-Id", bookerId));
+        assertNotModified(get("/items").header("X-Sharer-User-Id", ownerId));
+    }
+
+    @Test
+    void ownerAndGuestViewsHaveDifferentTags() throws Exception {
+        assertNotEquals(tag(get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId)),
+                tag(get("/items/{id}", itemId).header("X-Sharer-User-Id", bookerId)));
+    }
+
+    @Test
+    void tagChangesWhenNextBookingStartsBeforeSweep() throws Exception {
+        List<Long> bookings = jdbcTemplate.queryForList(
+                "SELECT id FROM bookings WHERE item_id = ? ORDER BY start_date", Long.class, itemId);
+        String itemTag = tag(get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId));
+        String itemsTag = tag(get("/items").header("X-Sharer-User-Id", ownerId));
+
+        // Время дошло до начала следующего бронирования, планировщик сводку ещё не сдвигал: версии строк прежние
+        jdbcTemplate.update("UPDATE bookings SET start_date = ? WHERE id = ?", now.minusMinutes(1), bookings.get(2));
+        jdbcTemplate.update("UPDATE items SET next_booking_start = ? WHERE id = ?", now.minusMinutes(1), itemId);
+
+        MvcResult item = perform(get("/items/{id}", itemId).header("X-Sharer-User-Id", ownerId)
+                .header("If-None-Match", itemTag));
+        assertNotEquals(itemTag, item.getResponse().getHeader("ETag"));
+        JsonNode body = objectMapper.readTree(item.getResponse().getContentAsString());
+        assertEquals(bookings.get(2), body.at("/lastBooking/id").asLong());
+        assertEquals(bookings.get(3), body.at("/nextBooking/id").asLong());
+
+        MvcResult items = perform(get("/items").header("X-Sharer-User-Id", ownerId).header("If-None-Match", itemsTag));
+        assertNotEquals(itemsTag, items.getResponse().getHeader("ETag"));
+        JsonNode started = objectMapper.readTree(items.getResponse().getContentAsString()).get(ITEMS - 1);
+        assertEquals(itemId, started.get("id").asLong());
+        assertEquals(bookings.get(2), started.at("/lastBooking/id").asLong());
+
+        // Гостю бронирования вещи не видны, его представление не изменилось
+        assertNotModified(get("/items/{id}", itemId).header("X-Sharer-User-Id", bookerId));
+    }
+
+    private String tag(MockHttpServletRequestBuilder request) throws Exception {
+        return perform(request).getResponse().getHeader("ETag");
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.ApiTestSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class QueryMetricsTests extends ApiTestSupport {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void streamedResponseStatementsAreCountedOncePerRequest() throws Exception {
+        DistributionSummary before = summary("/users");
+        long count = before == null ? 0 : before.count();
+        double total = before == null ? 0 : before.totalAmount();
+
+        statistics.clear();
+        JsonNode users = json(get("/users").param("stream", "true"));
+
+        assertEquals(3, users.size());
+        DistributionSummary after = summary("/users");
+        assertEquals(count + 1, after.count());
+        assertEquals(statistics.getPrepareStatementCount(), after.totalAmount() - total);
+        assertEquals(1, after.totalAmount() - total);
+    }
+
+    private DistributionSummary summary(String uri) {
+        return meterRegistry.find("shareit.request.statements").tag("method", "GET").tag("uri", uri).summary();
+    }
+}
@@ -0,0 +1,258 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.ApiTestSupport;
+import ru.practicum.shareit.booking.events.BookingChangedEvent;
+import ru.practicum.shareit.booking.events.BookingStatsHandler;
+import ru.practicum.shareit.config.JobLock;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxDispatcherTests extends ApiTestSupport {
+    private static final String TYPE = "test";
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+    @Autowired
+    private OutboxEndpoint outboxEndpoint;
+    @Autowired
+    private BookingStatsHandler bookingStatsHandler;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JobLock jobLock;
+
+    private final RecordingHandler handler = new RecordingHandler();
+    private final SimpleMeterRegistry dispatcherMetrics = new SimpleMeterRegistry();
+    private OutboxProperties properties;
+
+    @BeforeEach
+    void setUpOutbox() {
+        jdbcTemplate.update("DELETE FROM outbox_processed");
+        jdbcTemplate.update("DELETE FROM outbox");
+        properties = new OutboxProperties();
+        properties.setBatchSize(2);
+        properties.setInterval(Duration.ofSeconds(10));
+        properties.setMaxBackoff(Duration.ofSeconds(15));
+    }
+
+    @Test
+    void pendingMessagesAreDeliveredInOrder() {
+        List<Long> ids = List.of(save(TYPE), save(TYPE), save(TYPE));
+        double approved = statusChanges();
+        long bookingMessageId = save(BookingChangedEvent.TYPE);
+
+        dispatcher().dispatch();
+
+        assertEquals(ids, handler.handled);
+        assertEquals(approved + 1, statusChanges());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox WHERE dispatched IS NULL OR attempts > 0", Integer.class));
+        assertEquals(List.of(bookingMessageId), jdbcTemplate.queryForList(
+                "SELECT message_id FROM outbox_processed WHERE handler = 'booking-stats'", Long.class));
+        assertEquals(3, dispatcherMetrics.counter("shareit.outbox.dispatched", "type", TYPE).count());
+    }
+
+    @Test
+    void instanceWithoutLockSkipsDispatch() {
+        long id = save(TYPE);
+        OutboxDispatcher dispatcher = dispatcher();
+
+        // Пока блокировку держит другой экземпляр, этот очередь не разбирает
+        assertTrue(jobLock.runExclusively("outbox", dispatcher::dispatch));
+        assertEquals(List.of(), handler.handled);
+
+        dispatcher.dispatch();
+        assertEquals(List.of(id), handler.handled);
+    }
+
+    @Test
+    void failedMessageIsRetriedWithGrowingBackoff() {
+        long first = save(TYPE);
+        long second = save(TYPE);
+        handler.failures = 2;
+        OutboxDispatcher dispatcher = dispatcher();
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+        // Следующее сообщение не обгоняет неудачное
+        assertEquals(List.of(), handler.handled);
+        assertEquals(1, handler.attempts);
+        assertBackoff(first, 1, before, Duration.ofSeconds(10));
+
+        dispatcher.dispatch();
+        assertEquals(1, handler.attempts);
+
+        retryNow(first);
+        before = LocalDateTime.now();
+        dispatcher.dispatch();
+        assertEquals(2, handler.attempts);
+        assertBackoff(first, 2, before, properties.getMaxBackoff());
+
+        retryNow(first);
+        dispatcher.dispatch();
+        assertEquals(List.of(first, second), handler.handled);
+        assertEquals(2, dispatcherMetrics.counter("shareit.outbox.failures", "type", TYPE).count());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox WHERE dispatched IS NULL",
+                Integer.class));
+    }
+
+    @Test
+    void failedMessageHoldsOnlyItsAggregate() {
+        long failing = save(TYPE, bookingId);
+        long other = save(TYPE, itemId);
+        long held = save(TYPE, bookingId);
+        handler.failures = 1;
+        OutboxDispatcher dispatcher = dispatcher();
+
+        dispatcher.dispatch();
+        assertEquals(List.of(other), handler.handled);
+        assertEquals(1, message(failing).get("ATTEMPTS"));
+        assertNull(message(held).get("DISPATCHED"));
+
+        // Пока сообщение ждёт повтора, новые сообщения других агрегатов доставляются
+        long later = save(TYPE, itemId);
+        dispatcher.dispatch();
+        assertEquals(List.of(other, later), handler.handled);
+        assertEquals(0, message(held).get("ATTEMPTS"));
+
+        retryNow(failing);
+        dispatcher.dispatch();
+        assertEquals(List.of(other, later, failing, held), handler.handled);
+    }
+
+    @Test
+    void messageIsParkedAfterMaxAttempts() {
+        long first = save(TYPE);
+        long second = save(TYPE);
+        handler.failures = Integer.MAX_VALUE;
+        properties.setMaxAttempts(2);
+        OutboxDispatcher dispatcher = dispatcher();
+
+        dispatcher.dispatch();
+        retryNow(first);
+        dispatcher.dispatch();
+
+        // После последней попытки сообщение отложено, и очередь агрегата идёт дальше
+        assertEquals(3, handler.attempts);
+        Map<String, Object> parked = message(first);
+        assertEquals(2, parked.get("ATTEMPTS"));
+        assertNull(parked.get("DISPATCHED"));
+        assertNotNull(parked.get("PARKED"));
+        assertEquals(1, message(second).get("ATTEMPTS"));
+        assertNull(message(second).get("DISPATCHED"));
+        assertEquals(1, dispatcherMetrics.counter("shareit.outbox.parked", "type", TYPE).count());
+
+        // Отложенное сообщение ждёт переигрывания
+        handler.failures = 0;
+        dispatcher.dispatch();
+        assertEquals(List.of(), handler.handled);
+        assertEquals(Map.of("requeued", 2), outboxEndpoint.replay(first));
+        dispatcher.dispatch();
+        assertEquals(List.of(first, second), handler.handled);
+    }
+
+    @Test
+    void replayedMessagesAreRedeliveredButCountedOnce() {
+        long testMessageId = save(TYPE);
+        long bookingMessageId = save(BookingChangedEvent.TYPE);
+        double approved = statusChanges();
+        OutboxDispatcher dispatcher = dispatcher();
+        dispatcher.dispatch();
+
+        assertEquals(Map.of("requeued", 2), outboxEndpoint.replay(testMessageId));
+        assertNull(message(bookingMessageId).get("DISPATCHED"));
+        dispatcher.dispatch();
+
+        assertEquals(List.of(testMessageId, testMessageId), handler.handled);
+        assertEquals(approved + 1, statusChanges());
+        assertNotNull(message(bookingMessageId).get("DISPATCHED"));
+    }
+
+    @Test
+    void purgedMessagesLoseProcessedMarks() {
+        save(BookingChangedEvent.TYPE);
+        properties.setRetention(Duration.ZERO);
+
+        dispatcher().dispatch();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_processed", Integer.class));
+    }
+
+    private OutboxDispatcher dispatcher() {
+        return new OutboxDispatcher(outboxRepository, properties, List.of(handler, bookingStatsHandler),
+                transactionManager, jobLock, dispatcherMetrics);
+    }
+
+    private long save(String type) {
+        return save(type, bookingId);
+    }
+
+    private long save(String type, long aggregateId) {
+        String payload = "{\"ownerId\":" + ownerId + ",\"booking\":{\"id\":" + bookingId
+                + ",\"status\":\"APPROVED\"}}";
+        return outboxRepository.save(new OutboxMessage(type, aggregateId, payload)).getId();
+    }
+
+    private Map<String, Object> message(long id) {
+        return jdbcTemplate.queryForMap(
+                "SELECT attempts, dispatched, next_attempt, parked FROM outbox WHERE id = ?", id);
+    }
+
+    private void retryNow(long id) {
+        jdbcTemplate.update("UPDATE outbox SET next_attempt = ? WHERE id = ?", LocalDateTime.now().minusSeconds(1), id);
+    }
+
+    private void assertBackoff(long id, int attempts, LocalDateTime before, Duration backoff) {
+        Map<String, Object> message = message(id);
+        assertEquals(attempts, message.get("ATTEMPTS"));
+        assertNull(message.get("DISPATCHED"));
+        LocalDateTime nextAttempt = ((Timestamp) message.get("NEXT_ATTEMPT")).toLocalDateTime();
+        assertFalse(nextAttempt.isBefore(before.plus(backoff)), nextAttempt.toString());
+        assertFalse(nextAttempt.isAfter(LocalDateTime.now().plus(backoff)), nextAttempt.toString());
+    }
+
+    private double statusChanges() {
+        return meterRegistry.counter("shareit.booking.status.changes", "status", "APPROVED").count();
+    }
+
+    private static class RecordingHandler implements OutboxHandler {
+        private final List<Long> handled = new ArrayList<>();
+        private int failures;
+        private int attempts;
+
+        @Override
+        public String type() {
+            return TYPE;
+        }
+
+        @Override
+        public void handle(OutboxMessage message) {
+            attempts++;
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("Обработчик недоступен");
+            }
+            handled.add(message.getId());
+        }
+    }
+}
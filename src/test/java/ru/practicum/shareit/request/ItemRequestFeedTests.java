@@ -0,0 +1,114 @@
+package ru.practicum.shareit.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.ApiTestSupport;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class ItemRequestFeedTests extends ApiTestSupport {
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+    private static final int REQUESTS = 8;
+
+    @BeforeEach
+    void setUpRequests() {
+        // Запросы по двое создаются в одно и то же время, у i-го запроса i % 3 ответов
+        LocalDateTime created = now.truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < REQUESTS; i++) {
+            long requestId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR requests_seq", Long.class);
+            jdbcTemplate.update("INSERT INTO requests (id, description, requester_id, created) VALUES (?, ?, ?, ?)",
+                    requestId, "Нужна стремянка " + i, i % 2 == 0 ? bookerId : otherBookerId,
+                    created.minusHours(i / 2));
+            for (int j = 0; j < i % 3; j++) {
+                insert("items", Map.of("name", "Стремянка " + requestId, "description", "Стремянка",
+                        "owner_id", ownerId, "available", true, "request_id", requestId));
+            }
+        }
+        long ownRequestId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR requests_seq", Long.class);
+        jdbcTemplate.update("INSERT INTO requests (id, description, requester_id, created) VALUES (?, ?, ?, ?)",
+                ownRequestId, "Нужна лестница", ownerId, created);
+    }
+
+    @Test
+    void otherRequestsArePagedWithoutGapsOrDuplicates() throws Exception {
+        // Пользователь, страница запросов и ответы на все запросы страницы
+        assertStatements(3, get("/requests/all").param("size", "3").header("X-Sharer-User-Id", ownerId));
+
+        List<JsonNode> feed = readAll("/requests/all", ownerId, List.of(3, 3, 2));
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM requests WHERE requester_id <> ? "
+                + "ORDER BY created DESC, id DESC", Long.class, ownerId);
+        List<Long> ids = feed.stream().map(request -> request.get("id").asLong()).toList();
+        assertEquals(expected, ids);
+        assertEquals(REQUESTS, new HashSet<>(ids).size());
+        int ties = 0;
+        for (int i = 1; i < feed.size(); i++) {
+            LocalDateTime previous = LocalDateTime.parse(feed.get(i - 1).get("created").asText());
+            LocalDateTime current = LocalDateTime.parse(feed.get(i).get("created").asText());
+            assertTrue(!current.isAfter(previous));
+            if (previous.equals(current)) {
+                ties++;
+                assertTrue(ids.get(i) < ids.get(i - 1), ids.toString());
+            }
+        }
+        assertEquals(REQUESTS / 2, ties);
+        feed.forEach(this::assertAnswers);
+    }
+
+    @Test
+    void ownRequestsArePagedWithAnswers() throws Exception {
+        List<JsonNode> feed = readAll("/requests", bookerId, List.of(3, 1));
+
+        assertEquals(jdbcTemplate.queryForList("SELECT id FROM requests WHERE requester_id = ? "
+                + "ORDER BY created DESC, id DESC", Long.class, bookerId),
+                feed.stream().map(request -> request.get("id").asLong()).toList());
+        feed.forEach(this::assertAnswers);
+    }
+
+    @Test
+    void lastPageHasNoCursor() throws Exception {
+        MvcResult result = perform(get("/requests/all").param("size", "20").header("X-Sharer-User-Id", ownerId));
+        assertNull(result.getResponse().getHeader(NEXT_CURSOR));
+        assertEquals(REQUESTS, objectMapper.readTree(result.getResponse().getContentAsByteArray()).size());
+    }
+
+    private List<JsonNode> readAll(String path, long userId, List<Integer> expectedSizes) throws Exception {
+        List<JsonNode> requests = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get(path).param("size", "3").header("X-Sharer-User-Id", userId);
+            MvcResult result = perform(cursor == null ? request : request.param("cursor", cursor));
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+            sizes.add(page.size());
+            page.forEach(requests::add);
+            cursor = result.getResponse().getHeader(NEXT_CURSOR);
+        } while (cursor != null);
+        assertEquals(expectedSizes, sizes);
+        return requests;
+    }
+
+    private void assertAnswers(JsonNode request) {
+        long requestId = request.get("id").asLong();
+        List<Long> answers = jdbcTemplate.queryForList("SELECT id FROM items WHERE request_id = ? ORDER BY id",
+                Long.class, requestId);
+        assertEquals(answers, ids(request.get("items")).stream().sorted().toList(), request.toString());
+        for (JsonNode item : request.get("items")) {
+            assertEquals(requestId, item.get("requestId").asLong());
+            assertEquals("Стремянка " + requestId, item.get("name").asText());
+            assertEquals(ownerId, item.get("ownerId").asLong());
+        }
+    }
+}
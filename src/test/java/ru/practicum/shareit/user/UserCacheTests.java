@@ -0,0 +1,57 @@
+package ru.practicum.shareit.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.ApiTestSupport;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+class UserCacheTests extends ApiTestSupport {
+
+    @Test
+    void repeatedUserLookupIsServedFromCache() throws Exception {
+        JsonNode first = assertStatements(1, get("/users/{id}", ownerId));
+        JsonNode second = assertStatements(0, get("/users/{id}", ownerId));
+
+        assertEquals(first, second);
+        assertEquals(ownerId, second.get("id").asLong());
+        assertEquals("owner", second.get("name").asText());
+        assertEquals("owner@mail.ru", second.get("email").asText());
+    }
+
+    @Test
+    void updatedUserIsNotServedFromCache() throws Exception {
+        json(get("/users/{id}", ownerId));
+        perform(patch("/users/{id}", ownerId).contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Пётр\"}"));
+
+        JsonNode user = json(get("/users/{id}", ownerId));
+        assertEquals("Пётр", user.get("name").asText());
+        assertEquals("owner@mail.ru", user.get("email").asText());
+    }
+
+    @Test
+    void archiveFlagIsReadFromDatabaseWithoutEviction() throws Exception {
+        // Пользователь попадает в кэш до того, как у него появляются архивные бронирования
+        json(get("/users/{id}", bookerId));
+        List<Long> working = ids(json(get("/bookings").header("X-Sharer-User-Id", bookerId)));
+
+        long archivedId = bookingId + 1000;
+        jdbcTemplate.update("INSERT INTO bookings_archive"
+                + " (id, start_date, end_date, item_id, booker_id, status, version)"
+                + " VALUES (?, ?, ?, ?, ?, 'APPROVED', 0)",
+                archivedId, now.minusYears(2), now.minusYears(2).plusDays(1), itemId, bookerId);
+        jdbcTemplate.update("UPDATE users SET bookings_archived = TRUE WHERE id IN (?, ?)", bookerId, ownerId);
+
+        List<Long> all = ids(json(get("/bookings").header("X-Sharer-User-Id", bookerId)));
+        assertEquals(working.size() + 1, all.size());
+        assertTrue(all.containsAll(working));
+        assertEquals(archivedId, all.get(all.size() - 1));
+        assertTrue(ids(json(get("/bookings/owner").header("X-Sharer-User-Id", ownerId))).contains(archivedId));
+    }
+}